@@ -0,0 +1,126 @@
+package com.crimson.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Synthetic JSON records for benchmarks. Records are generated from a fixed seed so that every run sees the same
+ * input.
+ */
+public class Corpus {
+
+  /**
+   * Shapes of records
+   */
+  public enum Shape {
+    /**
+     * A handful of string, number and boolean fields
+     */
+    SMALL,
+    /**
+     * Two hundred flat fields of mixed types
+     */
+    WIDE,
+    /**
+     * Objects and arrays nested ten levels deep
+     */
+    DEEP,
+    /**
+     * Mostly long and double values, in objects and arrays
+     */
+    NUMERIC
+  }
+
+  private static final long SEED = 42;
+  private static final int WIDE_FIELDS = 200;
+  private static final int DEPTH = 10;
+
+  private Corpus() {}
+
+  /**
+   * JSON objects of the given shape, one per record
+   */
+  public static String[] records(Shape shape, int count) {
+    Random random = new Random(SEED);
+    String[] records = new String[count];
+    for (int i = 0; i < count; i++) {
+      records[i] = record(shape, i, random);
+    }
+    return records;
+  }
+
+  /**
+   * JSON array holding the records
+   */
+  public static String array(Shape shape, int count) {
+    return "[" + String.join(", ", records(shape, count)) + "]";
+  }
+
+  /**
+   * Write the records as a JSON lines file
+   */
+  public static Path write(Shape shape, int count, Path file) throws IOException {
+    return Files.write(file, Arrays.asList(records(shape, count)), StandardCharsets.UTF_8);
+  }
+
+  private static String record(Shape shape, int id, Random random) {
+    StringBuilder builder = new StringBuilder();
+    switch (shape) {
+      case WIDE:
+        builder.append("{\"id\": ").append(id);
+        for (int i = 0; i < WIDE_FIELDS; i++) {
+          builder.append(", \"field_").append(i).append("\": ");
+          value(builder, i % 4, random);
+        }
+        return builder.append('}').toString();
+      case DEEP:
+        builder.append("{\"id\": ").append(id);
+        for (int i = 0; i < DEPTH; i++) {
+          builder.append(", \"level_").append(i).append("\": {\"name\": \"level ").append(i)
+              .append("\", \"values\": [").append(random.nextInt(100)).append(", ").append(random.nextInt(100))
+              .append("]");
+        }
+        for (int i = 0; i < DEPTH; i++) {
+          builder.append('}');
+        }
+        return builder.append('}').toString();
+      case NUMERIC:
+        builder.append("{\"id\": ").append(id).append(", \"timestamp\": ").append(1_596_346_582L + id)
+            .append(", \"price\": ").append(random.nextInt(1_000_000) / 100.0)
+            .append(", \"quantity\": ").append(random.nextInt(1_000))
+            .append(", \"position\": {\"lat\": ").append(random.nextDouble() * 180 - 90)
+            .append(", \"lon\": ").append(random.nextDouble() * 360 - 180).append("}, \"samples\": [");
+        for (int i = 0; i < 16; i++) {
+          builder.append(i > 0 ? ", " : "").append(random.nextGaussian());
+        }
+        return builder.append("]}").toString();
+      default:
+        builder.append("{\"id\": \"u-").append(Long.toHexString(random.nextLong()))
+            .append("\", \"name\": \"John. S\", \"lisn\": ").append(id)
+            .append(", \"active\": ").append(random.nextBoolean())
+            .append(", \"last_update_date\": ").append(1_596_346_582L + id)
+            .append(", \"dob\": \"Dec-15-1978\"}");
+        return builder.toString();
+    }
+  }
+
+  private static void value(StringBuilder builder, int kind, Random random) {
+    switch (kind) {
+      case 0:
+        builder.append(random.nextInt());
+        break;
+      case 1:
+        builder.append(random.nextDouble());
+        break;
+      case 2:
+        builder.append(random.nextBoolean());
+        break;
+      default:
+        builder.append("\"value ").append(random.nextInt(1_000)).append('"');
+    }
+  }
+}
@@ -0,0 +1,134 @@
+package com.crimson.converter;
+
+import com.crimson.benchmark.Corpus;
+import com.crimson.benchmark.Corpus.Shape;
+import com.crimson.converter.DataFrame.DataFrameBuilder;
+import com.crimson.types.JsonObject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion of records into DataFrame rows and end to end conversion of a JSON lines file into CSV
+ */
+@Fork(1)
+public class ConverterBenchmark {
+
+  private static final int ROWS = 1_024;
+  private static final int FILE_RECORDS = 10_000;
+
+  @State(Scope.Thread)
+  public static class Rows {
+
+    @Param({"SMALL", "WIDE", "DEEP", "NUMERIC"})
+    public Shape shape;
+
+    JsonObject[] objects;
+    DataFrame frame;
+
+    @Setup
+    public void setUp() {
+      String[] records = Corpus.records(shape, ROWS);
+      objects = new JsonObject[ROWS];
+      for (int i = 0; i < ROWS; i++) {
+        objects[i] = JsonObject.newInstance().cast(records[i]);
+      }
+      frame = DataFrameBuilder.fromRecords(Arrays.asList(records));
+    }
+
+    @TearDown(Level.Invocation)
+    public void clear() {
+      frame.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+      frame.close();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class SourceFile {
+
+    @Param({"SMALL", "WIDE", "NUMERIC"})
+    public Shape shape;
+
+    @Param({"1", "4"})
+    public int consumers;
+
+    Path source;
+    Path sink;
+
+    @Setup
+    public void setUp() throws IOException {
+      source = Corpus.write(shape, FILE_RECORDS, Files.createTempFile("crimson", ".json"));
+    }
+
+    @Setup(Level.Invocation)
+    public void createSink() throws IOException {
+      sink = Files.createTempFile("crimson", ".csv");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteSink() throws IOException {
+      Files.delete(sink);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+      Files.delete(source);
+    }
+  }
+
+  /**
+   * Time per row of adding parsed records to a DataFrame
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 5, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  @OperationsPerInvocation(ROWS)
+  public int addRow(Rows rows) {
+    for (JsonObject object : rows.objects) {
+      rows.frame.addRow(object);
+    }
+    return rows.frame.getRowCount();
+  }
+
+  /**
+   * Time to convert a file of {@link #FILE_RECORDS} records
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 3)
+  @Measurement(iterations = 5)
+  public boolean sourceToSink(SourceFile files) throws InterruptedException {
+    SourceToSink sourceToSink =
+        new SourceToSink()
+            .readFromSource(files.source.toString())
+            .writeToSink(files.sink.toString())
+            .setMemoryMapped(true)
+            .setConsumerCount(files.consumers)
+            .start()
+            .drain();
+    return sourceToSink.awaitTermination(10, TimeUnit.MINUTES);
+  }
+}
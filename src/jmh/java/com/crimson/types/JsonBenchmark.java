@@ -0,0 +1,96 @@
+package com.crimson.types;
+
+import com.crimson.benchmark.Corpus;
+import com.crimson.benchmark.Corpus.Shape;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing, serialization and mapping of single records of every corpus shape
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonBenchmark {
+
+  private static final int RECORDS = 1_024;
+  private static final int ARRAY_RECORDS = 64;
+
+  @Param({"SMALL", "WIDE", "DEEP", "NUMERIC"})
+  public Shape shape;
+
+  private String[] records;
+  private JsonObject[] objects;
+  private String array;
+  private JsonArray jsonArray;
+  private int next = 0;
+
+  private final JsonWriter writer = new JsonWriter();
+  private final JsonMapper mapper = new JsonMapper();
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+  @Setup
+  public void setUp() {
+    records = Corpus.records(shape, RECORDS);
+    objects = new JsonObject[RECORDS];
+    for (int i = 0; i < RECORDS; i++) {
+      objects[i] = JsonObject.newInstance().cast(records[i]);
+    }
+    array = Corpus.array(shape, ARRAY_RECORDS);
+    jsonArray = JsonArray.newInstance().cast(array);
+  }
+
+  private int next() {
+    next = (next + 1) & (RECORDS - 1);
+    return next;
+  }
+
+  @Benchmark
+  public JsonObject castObject() {
+    return JsonObject.newInstance().cast(records[next()]);
+  }
+
+  /**
+   * Array of {@link #ARRAY_RECORDS} records
+   */
+  @Benchmark
+  public JsonArray castArray() {
+    return JsonArray.newInstance().cast(array);
+  }
+
+  @Benchmark
+  public int write() throws IOException {
+    out.reset();
+    writer.write((JsonType) objects[next()], out);
+    return out.size();
+  }
+
+  @Benchmark
+  public void toMap(Blackhole blackhole) {
+    blackhole.consume(mapper.toMap(objects[next()]));
+  }
+
+  /**
+   * Array of {@link #ARRAY_RECORDS} records
+   */
+  @Benchmark
+  public void toList(Blackhole blackhole) {
+    blackhole.consume(mapper.toList(jsonArray));
+  }
+}
@@ -26,6 +26,13 @@ class Cell {
     this("", null, null);
   }
 
+  /**
+   * Cell of a record. Its text is rendered by the column it is added to.
+   */
+  Cell(String name, JsonType<?> jsonType) {
+    this(name, jsonType, null);
+  }
+
   Cell(String name, JsonType<?> jsonType, Object value) {
     this.name = name;
     this.jsonType = jsonType;
@@ -0,0 +1,518 @@
+package com.crimson.converter;
+
+import com.crimson.converter.DataFrame.Storage;
+import com.crimson.types.JsonBoolean;
+import com.crimson.types.JsonNull;
+import com.crimson.types.JsonNumber;
+import com.crimson.types.JsonString;
+import com.crimson.types.JsonType;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed column vector of a DataFrame. Values are stored in primitive form chosen from the JsonType of the column and a
+ * bitmap marks the null rows. When a value doesn't fit the type of the column, the column is widened into a new
+ * column of a more general type: null to any type, long to double and everything else to string. Primitive values are
+ * kept in a {@link ColumnBuffer} of the storage chosen for the DataFrame, which is released by {@link #close()}.
+ */
+abstract class Column {
+
+  /**
+   * Column types from narrowest to widest
+   */
+  enum Type {
+    NULL, LONG, DOUBLE, BOOLEAN, STRING
+  }
+
+  /**
+   * Text of a null value
+   */
+  static final String NULL = "null";
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  final String name;
+  final Storage storage;
+
+  /**
+   * Null rows and number of rows
+   */
+  final BitSet nulls = new BitSet();
+  int size = 0;
+
+  Column(String name, Storage storage) {
+    this.name = name;
+    this.storage = storage;
+  }
+
+  static Column newInstance(String name, JsonType<?> jsonType) {
+    return newInstance(name, typeOf(jsonType), Storage.HEAP);
+  }
+
+  static Column newInstance(String name, Type type) {
+    return newInstance(name, type, Storage.HEAP);
+  }
+
+  static Column newInstance(String name, JsonType<?> jsonType, Storage storage) {
+    return newInstance(name, typeOf(jsonType), storage);
+  }
+
+  static Column newInstance(String name, Type type, Storage storage) {
+    switch (type) {
+      case LONG:
+        return new LongColumn(name, storage);
+      case DOUBLE:
+        return new DoubleColumn(name, storage);
+      case BOOLEAN:
+        return new BooleanColumn(name, storage);
+      case STRING:
+        return new StringColumn(name, storage);
+      default:
+        return new NullColumn(name, storage);
+    }
+  }
+
+  /**
+   * Narrowest column type that holds a value without loss
+   */
+  static Type typeOf(JsonType<?> value) {
+    if (null == value || value instanceof JsonNull) {
+      return Type.NULL;
+    } else if (value instanceof JsonNumber) {
+      JsonNumber number = (JsonNumber) value;
+      return number.isLong() ? Type.LONG : number.isDouble() ? Type.DOUBLE : Type.STRING;
+    } else if (value instanceof JsonBoolean) {
+      return Type.BOOLEAN;
+    }
+    return Type.STRING;
+  }
+
+  /**
+   * Narrowest type that holds values of both types: null to any type, long to double and everything else to string
+   */
+  static Type widen(Type left, Type right) {
+    if (left == right || right == Type.NULL) {
+      return left;
+    } else if (left == Type.NULL) {
+      return right;
+    } else if ((left == Type.LONG || left == Type.DOUBLE) && (right == Type.LONG || right == Type.DOUBLE)) {
+      return Type.DOUBLE;
+    }
+    return Type.STRING;
+  }
+
+  abstract Type getType();
+
+  int size() {
+    return size;
+  }
+
+  boolean isNull(int row) {
+    return nulls.get(row);
+  }
+
+  /**
+   * Append a value to the column
+   *
+   * @param value Value
+   * @return This column, or a wider copy of it holding the value if the value doesn't fit the type of this column
+   */
+  Column add(JsonType<?> value) {
+    Type type = typeOf(value);
+    if (type == Type.NULL) {
+      addNull();
+      return this;
+    }
+
+    Column column = accepts(type) ? this : widen(type);
+    column.append(value);
+    return column;
+  }
+
+  void addNull() {
+    ensureCapacity(size + 1);
+    nulls.set(size++);
+  }
+
+  /**
+   * Append a run of null rows, setting a range of the null bitmap at once
+   */
+  void addNulls(int count) {
+    ensureCapacity(size + count);
+    nulls.set(size, size + count);
+    size += count;
+  }
+
+  /**
+   * Text of a row as it appears in the serialized JSON value
+   */
+  String getString(int row) {
+    return isNull(row) ? NULL : format(row);
+  }
+
+  void clear() {
+    nulls.clear();
+    size = 0;
+  }
+
+  /**
+   * Approximate number of bytes held for the rows of the column, including the null bitmap
+   */
+  long getEstimatedSize() {
+    return (size + 7) >> 3;
+  }
+
+  /**
+   * Release the storage of the column
+   */
+  void close() {}
+
+  boolean accepts(Type type) {
+    return type == getType();
+  }
+
+  abstract void append(JsonType<?> value);
+
+  abstract String format(int row);
+
+  /**
+   * Write a non null row as a CSV field
+   */
+  void writeTo(DataFrame.DataFrameWriter writer, int row) throws IOException {
+    writer.writeField(format(row));
+  }
+
+  abstract void ensureCapacity(int capacity);
+
+  static int grow(int length, int capacity) {
+    return Math.max(capacity, Math.max(INITIAL_CAPACITY, length + (length >> 1)));
+  }
+
+  /**
+   * Copy of this column with a type wide enough for its values and values of the given type, after which this column is
+   * closed. A column whose type is already wide enough is returned as it is.
+   */
+  Column widen(Type type) {
+    Type wider = widen(getType(), type);
+    if (wider == getType()) {
+      return this;
+    }
+
+    Column column = newInstance(name, wider, storage);
+    column.ensureCapacity(size);
+    for (int i = 0; i < size; i++) {
+      if (isNull(i)) {
+        column.addNull();
+      } else if (wider == Type.DOUBLE) {
+        ((DoubleColumn) column).addDouble(((LongColumn) this).getLong(i));
+      } else {
+        ((StringColumn) column).addString(format(i));
+      }
+    }
+    close();
+    return column;
+  }
+
+  /**
+   * Column without any value so far
+   */
+  static class NullColumn extends Column {
+
+    NullColumn(String name, Storage storage) {
+      super(name, storage);
+    }
+
+    @Override
+    Type getType() {
+      return Type.NULL;
+    }
+
+    @Override
+    void append(JsonType<?> value) {
+      throw new IllegalStateException(String.format("Null column {%s} can't hold value {%s}", name, value));
+    }
+
+    @Override
+    String format(int row) {
+      return NULL;
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {}
+  }
+
+  static class LongColumn extends Column {
+
+    private final ColumnBuffer values;
+
+    LongColumn(String name, Storage storage) {
+      super(name, storage);
+      values = ColumnBuffer.newInstance(storage);
+    }
+
+    @Override
+    Type getType() {
+      return Type.LONG;
+    }
+
+    long getLong(int row) {
+      return values.getLong(row);
+    }
+
+    @Override
+    void append(JsonType<?> value) {
+      ensureCapacity(size + 1);
+      values.putLong(size++, ((JsonNumber) value).longValue());
+    }
+
+    @Override
+    String format(int row) {
+      return Long.toString(values.getLong(row));
+    }
+
+    @Override
+    void writeTo(DataFrame.DataFrameWriter writer, int row) throws IOException {
+      writer.writeLong(values.getLong(row));
+    }
+
+    @Override
+    long getEstimatedSize() {
+      return super.getEstimatedSize() + ((long) size << 3);
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      values.ensureCapacity((long) capacity << 3);
+    }
+
+    @Override
+    void close() {
+      values.close();
+    }
+  }
+
+  static class DoubleColumn extends Column {
+
+    private final ColumnBuffer values;
+
+    DoubleColumn(String name, Storage storage) {
+      super(name, storage);
+      values = ColumnBuffer.newInstance(storage);
+    }
+
+    @Override
+    Type getType() {
+      return Type.DOUBLE;
+    }
+
+    double getDouble(int row) {
+      return values.getDouble(row);
+    }
+
+    @Override
+    boolean accepts(Type type) {
+      return type == Type.DOUBLE || type == Type.LONG;
+    }
+
+    @Override
+    void append(JsonType<?> value) {
+      addDouble(((JsonNumber) value).doubleValue());
+    }
+
+    void addDouble(double value) {
+      ensureCapacity(size + 1);
+      values.putDouble(size++, value);
+    }
+
+    @Override
+    String format(int row) {
+      return Double.toString(values.getDouble(row));
+    }
+
+    @Override
+    long getEstimatedSize() {
+      return super.getEstimatedSize() + ((long) size << 3);
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      values.ensureCapacity((long) capacity << 3);
+    }
+
+    @Override
+    void close() {
+      values.close();
+    }
+  }
+
+  static class BooleanColumn extends Column {
+
+    private final BitSet values = new BitSet();
+
+    BooleanColumn(String name, Storage storage) {
+      super(name, storage);
+    }
+
+    @Override
+    Type getType() {
+      return Type.BOOLEAN;
+    }
+
+    boolean getBoolean(int row) {
+      return values.get(row);
+    }
+
+    @Override
+    void append(JsonType<?> value) {
+      values.set(size++, ((JsonBoolean) value).getBoolean());
+    }
+
+    @Override
+    String format(int row) {
+      return Boolean.toString(values.get(row));
+    }
+
+    @Override
+    long getEstimatedSize() {
+      return super.getEstimatedSize() << 1;
+    }
+
+    @Override
+    void clear() {
+      super.clear();
+      values.clear();
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {}
+  }
+
+  /**
+   * Strings are dictionary encoded until the number of distinct values grows past {@link #MAX_DICTIONARY_SIZE}, after
+   * which they are stored as they are. Dictionary codes follow the storage of the DataFrame, strings stay on the heap.
+   */
+  static class StringColumn extends Column {
+
+    static final int MAX_DICTIONARY_SIZE = 65_536;
+
+    /**
+     * Approximate size of a String and of a dictionary entry, without the chars
+     */
+    private static final int STRING_OVERHEAD = 40;
+    private static final int ENTRY_OVERHEAD = 48;
+
+    private Map<String, Integer> index = new HashMap<>();
+    private List<String> dictionary = new ArrayList<>();
+    private final ColumnBuffer codes;
+    private String[] values = null;
+
+    /**
+     * Approximate size of the strings held by the dictionary or the plain values
+     */
+    private long stringBytes = 0;
+
+    StringColumn(String name, Storage storage) {
+      super(name, storage);
+      codes = ColumnBuffer.newInstance(storage);
+    }
+
+    @Override
+    Type getType() {
+      return Type.STRING;
+    }
+
+    boolean isDictionaryEncoded() {
+      return null == values;
+    }
+
+    /**
+     * Any value is appended as its text
+     */
+    @Override
+    boolean accepts(Type type) {
+      return type != Type.NULL;
+    }
+
+    @Override
+    void append(JsonType<?> value) {
+      addString(value instanceof JsonString ? ((JsonString) value).getString() : value.toString());
+    }
+
+    void addString(String value) {
+      ensureCapacity(size + 1);
+      if (null != values) {
+        values[size++] = value;
+        stringBytes += STRING_OVERHEAD + 2L * value.length();
+        return;
+      }
+
+      Integer code = index.get(value);
+      if (null == code) {
+        if (dictionary.size() == MAX_DICTIONARY_SIZE) {
+          decode();
+          values[size++] = value;
+          stringBytes += STRING_OVERHEAD + 2L * value.length();
+          return;
+        }
+        code = dictionary.size();
+        dictionary.add(value);
+        index.put(value, code);
+        stringBytes += ENTRY_OVERHEAD + STRING_OVERHEAD + 2L * value.length();
+      }
+      codes.putInt(size++, code);
+    }
+
+    @Override
+    String format(int row) {
+      return null != values ? values[row] : dictionary.get(codes.getInt(row));
+    }
+
+    @Override
+    void clear() {
+      super.clear();
+      index = new HashMap<>();
+      dictionary = new ArrayList<>();
+      values = null;
+      stringBytes = 0;
+    }
+
+    @Override
+    long getEstimatedSize() {
+      return super.getEstimatedSize() + stringBytes + (null != values ? (long) size << 3 : (long) size << 2);
+    }
+
+    @Override
+    void close() {
+      codes.close();
+    }
+
+    @Override
+    void ensureCapacity(int capacity) {
+      if (null != values) {
+        if (capacity > values.length) {
+          values = Arrays.copyOf(values, grow(values.length, capacity));
+        }
+      } else {
+        codes.ensureCapacity((long) capacity << 2);
+      }
+    }
+
+    /**
+     * Switch from dictionary codes to plain values
+     */
+    private void decode() {
+      values = new String[grow(size, size + 1)];
+      for (int i = 0; i < size; i++) {
+        values[i] = isNull(i) ? null : dictionary.get(codes.getInt(i));
+      }
+      stringBytes -= (long) ENTRY_OVERHEAD * dictionary.size();
+      index = null;
+      dictionary = null;
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package com.crimson.converter;
+
+import com.crimson.converter.DataFrame.Storage;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Growable storage for the primitive values of a column. Values live in a heap buffer, a direct buffer or a memory
+ * mapped spill file, depending on the storage of the DataFrame. Off-heap memory is released by {@link #close()}.
+ */
+class ColumnBuffer {
+
+  /**
+   * Largest buffer a column can use (2 GB)
+   */
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  private static final int INITIAL_CAPACITY = 128;
+
+  /**
+   * Directory of spill files for memory mapped storage
+   */
+  private static final String SPILL_DIRECTORY = System.getProperty("crimson.spill.dir",
+      System.getProperty("java.io.tmpdir"));
+
+  /**
+   * Unsafe.invokeCleaner for releasing direct and mapped buffers right away, when the JDK provides it
+   */
+  private static final Object UNSAFE;
+  private static final Method INVOKE_CLEANER;
+
+  static {
+    Object unsafe = null;
+    Method invokeCleaner = null;
+    try {
+      Class<?> clazz = Class.forName("sun.misc.Unsafe");
+      Field field = clazz.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      unsafe = field.get(null);
+      invokeCleaner = clazz.getMethod("invokeCleaner", ByteBuffer.class);
+    } catch (Exception e) {
+      /* Released by the garbage collector instead */
+    }
+    UNSAFE = unsafe;
+    INVOKE_CLEANER = invokeCleaner;
+  }
+
+  private final Storage storage;
+  private ByteBuffer buffer;
+
+  /**
+   * Spill file for memory mapped storage
+   */
+  private Path file;
+  private FileChannel channel;
+
+  private ColumnBuffer(Storage storage) {
+    this.storage = storage;
+    this.buffer = ByteBuffer.allocate(0);
+  }
+
+  static ColumnBuffer newInstance(Storage storage) {
+    return new ColumnBuffer(storage);
+  }
+
+  long getLong(int index) {
+    return buffer.getLong(index << 3);
+  }
+
+  void putLong(int index, long value) {
+    buffer.putLong(index << 3, value);
+  }
+
+  double getDouble(int index) {
+    return buffer.getDouble(index << 3);
+  }
+
+  void putDouble(int index, double value) {
+    buffer.putDouble(index << 3, value);
+  }
+
+  int getInt(int index) {
+    return buffer.getInt(index << 2);
+  }
+
+  void putInt(int index, int value) {
+    buffer.putInt(index << 2, value);
+  }
+
+  /**
+   * Size of the buffer in bytes
+   */
+  int capacity() {
+    return buffer.capacity();
+  }
+
+  /**
+   * Grow the buffer to hold at least the given number of bytes
+   */
+  void ensureCapacity(long bytes) {
+    if (bytes <= buffer.capacity()) {
+      return;
+    }
+    if (bytes > MAX_CAPACITY) {
+      throw new IllegalStateException(String.format("Column buffer can't grow to %d bytes", bytes));
+    }
+
+    int capacity = (int) Math.min(MAX_CAPACITY,
+        Math.max(bytes, Math.max(INITIAL_CAPACITY, (long) buffer.capacity() << 1)));
+    ByteBuffer old = buffer;
+    buffer = allocate(capacity);
+    if (storage != Storage.MAPPED) {
+      ByteBuffer source = old.duplicate();
+      source.clear();
+      buffer.put(source);
+      buffer.clear();
+    }
+    release(old);
+  }
+
+  void close() {
+    if (null == buffer) {
+      return;
+    }
+
+    release(buffer);
+    buffer = null;
+    if (null != channel) {
+      try {
+        channel.close();
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private ByteBuffer allocate(int capacity) {
+    switch (storage) {
+      case DIRECT:
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+      case MAPPED:
+        try {
+          if (null == channel) {
+            file = Files.createTempFile(Paths.get(SPILL_DIRECTORY), "crimson", ".col");
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+          }
+          /* Mapping a larger region extends the file and keeps the values written so far */
+          return channel.map(MapMode.READ_WRITE, 0, capacity).order(ByteOrder.nativeOrder());
+        } catch (IOException e) {
+          throw new IllegalStateException(e);
+        }
+      default:
+        return ByteBuffer.allocate(capacity).order(ByteOrder.nativeOrder());
+    }
+  }
+
+  private void release(ByteBuffer buffer) {
+    if (!buffer.isDirect() || null == INVOKE_CLEANER || buffer.capacity() == 0) {
+      return;
+    }
+
+    try {
+      INVOKE_CLEANER.invoke(UNSAFE, buffer);
+    } catch (Exception e) {
+      /* Released by the garbage collector instead */
+    }
+  }
+}
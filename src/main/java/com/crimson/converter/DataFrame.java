@@ -10,50 +10,64 @@ import com.crimson.types.JsonNumber;
 import com.crimson.types.JsonObject;
 import com.crimson.types.JsonString;
 import com.crimson.types.JsonType;
-import java.io.File;
-import java.io.FileInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Supplier;
 
-public class DataFrame {
+public class DataFrame implements Closeable {
 
   /**
-   * Max cols and rows for DataFrame
+   * Where the primitive values of columns are kept: on the heap, in direct buffers or in memory mapped spill files
+   */
+  public enum Storage {
+    HEAP, DIRECT, MAPPED
+  }
+
+  /**
+   * Max cols for DataFrame
    */
   private static final int MAX_NUMBER_COLS = 65_536;
-  private static final int MAX_NUMBER_ROWS = 1_000_000;
   /**
    * Separators
    */
-  private static final String COLUMN_SEPARATOR = ",";
+  private static final char COLUMN_SEPARATOR = ',';
+  private static final char QUOTE = '"';
   private static final String ROW_SEPARATOR = System.lineSeparator();
   /**
-   * Containers for DataFrame
+   * Containers for DataFrame. Every column is a typed vector, see {@link Column}.
    */
-  private final Map<String, List<Cell>> frame = new LinkedHashMap<>();
+  private final Map<String, Column> frame = new LinkedHashMap<>();
   private final Set<String> keys = new HashSet<>();
   /**
    * DataFrame counters
    */
   private int rowCount = 0, colCount = 0;
 
+  private final Storage storage;
+
   private DataFrame() {
+    storage = Storage.HEAP;
   }
 
-  private DataFrame(DataFrame dataFrame) {
-    dataFrame.frame.entrySet().stream().forEach(e -> frame.put(e.getKey(), new ArrayList<>()));
+  private DataFrame(DataFrame dataFrame, Storage storage) {
+    this.storage = storage;
+    dataFrame.frame.values().stream()
+        .forEach(e -> frame.put(e.name, Column.newInstance(e.name, e.getType(), storage)));
     dataFrame.keys.stream().forEach(e -> keys.add(e));
+    colCount = dataFrame.colCount;
   }
 
   public void addHeader(List<Cell> header) {
@@ -61,9 +75,22 @@ public class DataFrame {
       return;
     }
 
-    header.stream().forEach(e -> {
-      frame.put(e.name, new ArrayList<>());
-      keys.add(e.name);
+    Map<String, Column.Type> schema = new LinkedHashMap<>();
+    header.stream().forEach(e -> schema.put(e.name, Column.typeOf(e.jsonType)));
+    addHeader(schema);
+  }
+
+  /**
+   * Add columns of the given types, in the iteration order of the schema
+   */
+  void addHeader(Map<String, Column.Type> schema) {
+    if (initialized()) {
+      return;
+    }
+
+    schema.forEach((name, type) -> {
+      frame.put(name, Column.newInstance(name, type, storage));
+      keys.add(name);
       ++colCount;
       if (colCount >= MAX_NUMBER_COLS) {
         throw new IllegalStateException(String.format("DataFrame exceeded max. column size : %d", colCount));
@@ -73,15 +100,20 @@ public class DataFrame {
 
   public void addRow(Object object) {
     Objects.requireNonNull(object);
+    if (object instanceof JsonType) {
+      addRow((JsonType<?>) object);
+      return;
+    }
+
     JsonObject jsonObject = JsonObject.newInstance().cast(object);
-    List<Cell> cells = DataFrameBuilder.inferSchema(EMPTY, jsonObject, null);
+    List<Cell> cells = DataFrameBuilder.inferSchema(EMPTY, jsonObject);
     addRow(cells);
   }
 
   public void addRow(String input) {
     Objects.requireNonNull(input);
     JsonObject jsonObject = JsonObject.newInstance().cast(input);
-    List<Cell> cells = DataFrameBuilder.inferSchema(EMPTY, jsonObject, null);
+    List<Cell> cells = DataFrameBuilder.inferSchema(EMPTY, jsonObject);
     addRow(cells);
   }
 
@@ -92,31 +124,83 @@ public class DataFrame {
     }
 
     JsonObject jsonObject = (JsonObject) jsonType;
-    List<Cell> cells = DataFrameBuilder.inferSchema(EMPTY, jsonType, null);
+    List<Cell> cells = DataFrameBuilder.inferSchema(EMPTY, jsonType);
     addRow(cells);
   }
 
   private void addRow(List<Cell> row) {
-    row.stream().forEach(e -> {
-      if (rowCount > MAX_NUMBER_ROWS) {
-        throw new IllegalStateException(String.format("DataFrame exceeded max. row size : %d", rowCount));
+    for (Cell e : row) {
+      Column column = frame.get(e.name);
+      if (null == column) {
+        column = addColumn(e.name);
       }
-      List<Cell> list = frame.get(e.name);
-      list.add(e);
-    });
+
+      Column added = column.add(e.jsonType);
+      if (added != column) {
+        frame.put(e.name, added);
+      }
+    }
     ++rowCount;
 
+    /* Pad columns missing from the record with nulls */
     frame.values().stream().forEach(e -> {
       if (e.size() < rowCount) {
-        JsonType<?> jsonType = JsonNull.newInstance();
-        Object value = jsonType.toString();
-        e.add(new Cell(EMPTY, jsonType, value));
+        e.addNull();
       }
     });
   }
 
+  /**
+   * Add a column for a key first seen after rows were added. The rows already in the DataFrame are null in it.
+   */
+  private Column addColumn(String name) {
+    if (colCount + 1 >= MAX_NUMBER_COLS) {
+      throw new IllegalStateException(String.format("DataFrame exceeded max. column size : %d", colCount + 1));
+    }
+
+    Column column = Column.newInstance(name, Column.Type.NULL, storage);
+    column.addNulls(rowCount);
+    frame.put(name, column);
+    keys.add(name);
+    ++colCount;
+    return column;
+  }
+
   public void clear() {
-    frame.entrySet().stream().forEach(e -> e.getValue().clear());
+    frame.values().stream().forEach(Column::clear);
+    rowCount = 0;
+  }
+
+  /**
+   * New empty DataFrame with the same columns
+   */
+  DataFrame copyHeader() {
+    return new DataFrame(this, storage);
+  }
+
+  /**
+   * New empty DataFrame with the same columns kept in the given storage
+   */
+  DataFrame copyHeader(Storage storage) {
+    return new DataFrame(this, storage);
+  }
+
+  public Storage getStorage() { return storage; }
+
+  /**
+   * Release the direct buffers and spill files of the columns. The DataFrame can't be used afterwards.
+   */
+  @Override
+  public void close() {
+    frame.values().stream().forEach(Column::close);
+  }
+
+  Column getColumn(String name) {
+    return frame.get(name);
+  }
+
+  Collection<Column> getColumns() {
+    return frame.values();
   }
 
   public boolean initialized() {
@@ -127,110 +211,210 @@ public class DataFrame {
 
   public int getColCount() { return colCount; }
 
+  /**
+   * Approximate number of bytes held for the rows of the DataFrame
+   */
+  public long getEstimatedSize() {
+    long size = 0;
+    for (Column column : frame.values()) {
+      size += column.getEstimatedSize();
+    }
+    return size;
+  }
+
+  /**
+   * Write the DataFrame as CSV, header line first, to an output stream in UTF-8
+   *
+   * @param outputStream Output stream
+   */
+  public void write(OutputStream outputStream) throws IOException {
+    DataFrameWriter writer = new DataFrameWriter(outputStream);
+    writer.writeHeader(this);
+    writer.writeRows(this);
+    writer.flush();
+  }
+
   @Override
   public String toString() {
-    StringBuffer buffer = new StringBuffer();
-
-    /* Add headers */
-    frame.keySet().stream().forEach(e -> buffer.append(e).append(COLUMN_SEPARATOR));
-    buffer.append(ROW_SEPARATOR);
-
-    /* Add rows */
-    for (int i = 0; i < rowCount; i++) {
-      final int idx = i;
-      frame.values().stream().forEach(e -> {
-        Cell cell = e.get(idx);
-        if (cell == null) {
-          buffer.append(EMPTY);
-        } else {
-          buffer.append(cell.value).append(COLUMN_SEPARATOR);
-        }
-      });
-      buffer.append(ROW_SEPARATOR);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try {
+      write(outputStream);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
     }
-
-    return buffer.toString();
+    return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
   }
 
+  /**
+   * Builds DataFrames with the columns inferred from a sample of a JSON lines source. The source is sampled once, on the
+   * first build, and every build returns a new empty DataFrame with those columns. Builders are thread safe and
+   * independent of each other, so pipelines reading different sources can run side by side.
+   */
   static class DataFrameBuilder {
 
     /**
-     * Samples directory details
+     * Default sample policy: number of records and approximate number of bytes read from the head of the source
      */
-    private static final String SAMPLE_DIRECTORY = "/tmp/data";
+    static final int SAMPLE_SIZE = 1_000;
+    static final long SAMPLE_BYTES = 1_048_576;
+
+    private final String fileName;
+    private int sampleSize = SAMPLE_SIZE;
+    private long sampleBytes = SAMPLE_BYTES;
 
     /**
-     * Sample file
+     * DataFrame with the inferred columns, built on first use and guarded by the builder
      */
-    private static final String SAMPLE_FILE_NAME = "sample-json.json";
+    private DataFrame schema = null;
+
+    private DataFrameBuilder(String fileName) {
+      this.fileName = Objects.requireNonNull(fileName);
+    }
 
     /**
-     * Max chunk size to be read from samples file
+     * @param fileName JSON lines source to infer the columns from
      */
-    private static final int CHUNK_SIZE = 1_048_576;
+    static DataFrameBuilder newInstance(String fileName) {
+      return new DataFrameBuilder(fileName);
+    }
+
     /**
-     * Buffer for content read from file
+     * Set how much of the source is sampled. Sampling stops at whichever limit is reached first and at least one record
+     * is always sampled.
+     *
+     * @param sampleSize Maximum number of records sampled
+     * @param sampleBytes Approximate maximum number of bytes sampled
      */
-    private static final ByteBuffer buffer = ByteBuffer.allocate(CHUNK_SIZE);
+    synchronized DataFrameBuilder setSamplePolicy(int sampleSize, long sampleBytes) {
+      if (sampleSize <= 0 || sampleBytes <= 0) {
+        throw new IllegalArgumentException(
+            String.format("Invalid sample policy of {%d} records and {%d} bytes", sampleSize, sampleBytes));
+      }
+      this.sampleSize = sampleSize;
+      this.sampleBytes = sampleBytes;
+      schema = null;
+      return this;
+    }
+
+    String getFileName() { return fileName; }
+
+    synchronized int getSampleSize() { return sampleSize; }
+
+    synchronized long getSampleBytes() { return sampleBytes; }
 
     /**
-     * DataFrame. This is built during static initialization
+     * New empty DataFrame with the inferred columns, kept on the heap
      */
-    private static DataFrame dataFrame = null;
-
-    static {
-      newInstance();
+    DataFrame build() {
+      return build(Storage.HEAP);
     }
 
-    public static DataFrame newInstance() {
-      /* Load data frame headers if not loaded already */
-      if (null == dataFrame) {
-        build();
+    /**
+     * New empty DataFrame with the inferred columns kept in the given storage
+     */
+    DataFrame build(Storage storage) {
+      DataFrame frame;
+      synchronized (this) {
+        if (null == schema) {
+          schema = fromRecords(sample(fileName, sampleSize, sampleBytes));
+        }
+        frame = schema;
       }
-      return dataFrame;
+      return frame.copyHeader(storage);
     }
 
-    private static DataFrame build() {
-      String fileName = SAMPLE_DIRECTORY + "/" + SAMPLE_FILE_NAME;
-      try (FileInputStream fileInputStream = new FileInputStream(new File(fileName))) {
-        FileChannel fileChannel = fileInputStream.getChannel();
-        fileChannel.read(buffer);
-      } catch (IOException e) {
-        throw new IllegalStateException(e);
-      }
+    /**
+     * New DataFrame with the columns inferred from the given records
+     */
+    static DataFrame fromRecords(List<String> records) {
+      DataFrame frame = new DataFrame();
+      frame.addHeader(inferSchema(records));
+      return frame;
+    }
+
+    /**
+     * Schema of a set of records. Records are parsed and flattened in parallel and their schemas merged, widening the
+     * type of a column whenever records disagree on it: long to double and any other mix of types to string. A column
+     * missing from some records, or null in them, is kept and the rows without a value are null. Columns are ordered as
+     * they first appear in the records.
+     *
+     * @param records JSON objects, one per record
+     * @return Column types by flattened column name
+     */
+    static Map<String, Column.Type> inferSchema(List<String> records) {
+      return records.parallelStream()
+          .map(record -> {
+            Map<String, Column.Type> schema = new LinkedHashMap<>();
+            inferSchema(EMPTY, JsonObject.newInstance().cast(record))
+                .forEach(e -> schema.merge(e.name, Column.typeOf(e.jsonType), Column::widen));
+            return schema;
+          })
+          .reduce(new LinkedHashMap<>(), DataFrameBuilder::merge);
+    }
+
+    private static Map<String, Column.Type> merge(Map<String, Column.Type> left, Map<String, Column.Type> right) {
+      Map<String, Column.Type> schema = new LinkedHashMap<>(left);
+      right.forEach((name, type) -> schema.merge(name, type, Column::widen));
+      return schema;
+    }
 
-      try {
-        String content = new String(buffer.array(), Charset.defaultCharset());
-        int idx = content.indexOf('\n');
-        if (idx >= 0) {
-          content = content.substring(0, idx);
+    /**
+     * Records from the head of a JSON lines file, blank lines skipped
+     */
+    private static List<String> sample(String fileName, int sampleSize, long sampleBytes) {
+      List<String> records = new ArrayList<>();
+      try (BufferedReader reader = Files.newBufferedReader(Paths.get(fileName), StandardCharsets.UTF_8)) {
+        long bytes = 0;
+        String line;
+        while (records.size() < sampleSize && bytes < sampleBytes && null != (line = reader.readLine())) {
+          bytes += utf8Length(line) + 1;
+          if (!line.trim().isEmpty()) {
+            records.add(line);
+          }
         }
-        JsonObject jsonObject = JsonObject.newInstance().cast(content);
-        List<Cell> cells = inferSchema(EMPTY, jsonObject, DataFrame::new);
-        dataFrame.addHeader(cells);
-      } catch (Exception e) {
+      } catch (IOException e) {
         throw new IllegalStateException(e);
       }
 
-      return dataFrame;
+      if (records.isEmpty()) {
+        throw new IllegalStateException(String.format("No records to infer schema from in {%s}", fileName));
+      }
+      return records;
     }
 
-    private static List<Cell> inferSchema(String prefix, JsonType<?> jsonType, Supplier<DataFrame> supplier) {
-      if (null == dataFrame) {
-        dataFrame = supplier.get();
+    /**
+     * Number of bytes of a string encoded as UTF-8
+     */
+    private static long utf8Length(String s) {
+      long length = 0;
+      for (int i = 0, count = s.length(); i < count; i++) {
+        char c = s.charAt(i);
+        if (c < 0x80) {
+          length += 1;
+        } else if (c < 0x800) {
+          length += 2;
+        } else if (Character.isSurrogate(c)) {
+          /* Each half of a surrogate pair accounts for two of its four bytes */
+          length += 2;
+        } else {
+          length += 3;
+        }
       }
+      return length;
+    }
 
+    private static List<Cell> inferSchema(String prefix, JsonType<?> jsonType) {
       List<Cell> result = new ArrayList<>();
       if (jsonType instanceof JsonNull || jsonType instanceof JsonBoolean || jsonType instanceof JsonNumber
           || jsonType instanceof JsonString || jsonType instanceof JsonArray) {
-        Cell cell = new Cell(prefix, jsonType, jsonType.toString());
+        Cell cell = new Cell(prefix, jsonType);
         result.add(cell);
       } else {
         JsonObject jsonObject = (JsonObject) jsonType;
         jsonObject
             .forEach((key, value) -> {
               String pre = isEmpty(prefix) ? key : prefix + "." + key;
-              List<Cell> res = inferSchema(pre, (JsonType<?>) value, supplier);
+              List<Cell> res = inferSchema(pre, (JsonType<?>) value);
               result.addAll(res);
             });
       }
@@ -239,12 +423,167 @@ public class DataFrame {
     }
   }
 
+  /**
+   * Streams DataFrames as CSV (RFC 4180 quoting) into a reusable UTF-8 byte buffer which is written to the output
+   * stream as it fills up. Rows are written column by column straight from the column vectors. Null values are written
+   * as empty fields.
+   */
   static class DataFrameWriter {
 
-    private DataFrameWriter() {
+    private static final int BUFFER_SIZE = 65_536;
+
+    private final OutputStream outputStream;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count = 0;
+
+    DataFrameWriter(OutputStream outputStream) {
+      this.outputStream = Objects.requireNonNull(outputStream);
+    }
+
+    void writeHeader(DataFrame dataFrame) throws IOException {
+      writeHeader(dataFrame.frame.keySet());
+    }
+
+    void writeHeader(Collection<String> names) throws IOException {
+      boolean first = true;
+      for (String name : names) {
+        if (!first) {
+          writeByte(COLUMN_SEPARATOR);
+        }
+        first = false;
+        writeField(name);
+      }
+      writeAscii(ROW_SEPARATOR);
+    }
+
+    void writeRows(DataFrame dataFrame) throws IOException {
+      writeRows(dataFrame.frame.values().toArray(new Column[0]), dataFrame.rowCount);
+    }
+
+    /**
+     * Write the rows of a DataFrame with the given columns in the given order. Columns the DataFrame doesn't have are
+     * written as empty fields.
+     */
+    void writeRows(DataFrame dataFrame, Collection<String> names) throws IOException {
+      Column[] columns = new Column[names.size()];
+      int j = 0;
+      for (String name : names) {
+        columns[j++] = dataFrame.frame.get(name);
+      }
+      writeRows(columns, dataFrame.rowCount);
+    }
+
+    private void writeRows(Column[] columns, int rowCount) throws IOException {
+      for (int i = 0; i < rowCount; i++) {
+        for (int j = 0; j < columns.length; j++) {
+          if (j > 0) {
+            writeByte(COLUMN_SEPARATOR);
+          }
+          if (null != columns[j] && !columns[j].isNull(i)) {
+            columns[j].writeTo(this, i);
+          }
+        }
+        writeAscii(ROW_SEPARATOR);
+      }
+    }
+
+    /**
+     * Write the buffered bytes to the output stream
+     */
+    void flush() throws IOException {
+      if (count > 0) {
+        outputStream.write(buffer, 0, count);
+        count = 0;
+      }
+    }
+
+    void writeLong(long value) throws IOException {
+      if (value == Long.MIN_VALUE) {
+        writeAscii(Long.toString(value));
+        return;
+      }
+
+      if (buffer.length - count < 20) {
+        flush();
+      }
+      if (value < 0) {
+        buffer[count++] = '-';
+        value = -value;
+      }
+
+      /* Write digits from the least significant one and reverse them */
+      int start = count;
+      do {
+        buffer[count++] = (byte) ('0' + value % 10);
+        value /= 10;
+      } while (value != 0);
+      for (int i = start, j = count - 1; i < j; i++, j--) {
+        byte b = buffer[i];
+        buffer[i] = buffer[j];
+        buffer[j] = b;
+      }
+    }
+
+    /**
+     * Write a field, quoted if it holds a separator, a quote or a line break
+     */
+    void writeField(String value) throws IOException {
+      boolean quote = false;
+      for (int i = 0, length = value.length(); i < length && !quote; i++) {
+        char c = value.charAt(i);
+        quote = c == COLUMN_SEPARATOR || c == QUOTE || c == '\n' || c == '\r';
+      }
+
+      if (quote) {
+        writeByte(QUOTE);
+      }
+      for (int i = 0, length = value.length(); i < length; i++) {
+        if (buffer.length - count < 4) {
+          flush();
+        }
+
+        char c = value.charAt(i);
+        if (c < 0x80) {
+          if (c == QUOTE) {
+            buffer[count++] = QUOTE;
+          }
+          buffer[count++] = (byte) c;
+        } else if (c < 0x800) {
+          buffer[count++] = (byte) (0xC0 | (c >> 6));
+          buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+          int code = Character.toCodePoint(c, value.charAt(++i));
+          buffer[count++] = (byte) (0xF0 | (code >> 18));
+          buffer[count++] = (byte) (0x80 | ((code >> 12) & 0x3F));
+          buffer[count++] = (byte) (0x80 | ((code >> 6) & 0x3F));
+          buffer[count++] = (byte) (0x80 | (code & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          /* Unpaired surrogate has no UTF-8 encoding, it is written as the replacement character U+FFFD */
+          buffer[count++] = (byte) 0xEF;
+          buffer[count++] = (byte) 0xBF;
+          buffer[count++] = (byte) 0xBD;
+        } else {
+          buffer[count++] = (byte) (0xE0 | (c >> 12));
+          buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      if (quote) {
+        writeByte(QUOTE);
+      }
     }
 
-    private void write(OutputStream outputStream) {
+    private void writeAscii(String value) throws IOException {
+      for (int i = 0, length = value.length(); i < length; i++) {
+        writeByte(value.charAt(i));
+      }
+    }
+
+    private void writeByte(char c) throws IOException {
+      if (count == buffer.length) {
+        flush();
+      }
+      buffer[count++] = (byte) c;
     }
   }
 }
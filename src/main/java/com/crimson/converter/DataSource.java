@@ -1,18 +1,29 @@
 package com.crimson.converter;
 
-import static com.crimson.converter.SourceToSink.sharedPool;
-
+import com.crimson.types.JsonObject;
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 class DataSource<E> {
 
@@ -30,24 +41,47 @@ class DataSource<E> {
    * Read buffer size (~32 MB)
    */
   private static final int READ_BUFFER_SIZE = 33_554_432;
-  private static final char[] buffer = new char[READ_BUFFER_SIZE];
 
   /**
-   * Read chunk size
+   * Size of a memory mapped region of the input file (1 GB)
+   */
+  static final int MAP_REGION_SIZE = 1_073_741_824;
+
+  /**
+   * Number of records handed to the consumer at once
    */
-  private static final int CHUNK_SIZE = 65_536;
+  private static final int BATCH_SIZE = 1_024;
+
+  /**
+   * Number of parsed batches a range may run ahead of the consumer in ordered parallel mode
+   */
+  private static final int RANGE_QUEUE_SIZE = 4;
+  private static final Object[] END_OF_RANGE = new Object[0];
 
-  private static final String NEWLINE = System.lineSeparator();
   /**
    * Internal buffered reader
    */
-  private final Reader reader;
-  private final FileReader fileReader;
+  private final BufferedReader reader;
+
+  /**
+   * Input file and region size when the file is memory mapped instead of read through the reader
+   */
+  private final String fileName;
+  private final int mapRegionSize;
+  private long mappedOffset = 0;
+
+  /**
+   * Number of byte ranges parsed concurrently, the pool they are parsed on and whether records are delivered in file
+   * order
+   */
+  private int parallelism = 1;
+  private ExecutorService executor = null;
+  private boolean ordered = false;
 
   /**
    * State of JsonToCsvConverter
    */
-  private int offset = 0;
+  private boolean eof = false;
   private boolean started = false;
   private boolean stopped = false;
   private boolean err = false;
@@ -58,13 +92,65 @@ class DataSource<E> {
 
   DataSource(String fileName) {
     try {
-      fileReader = new FileReader(fileName);
-      reader = new BufferedReader(fileReader, READ_BUFFER_SIZE);
+      reader =
+          new BufferedReader(
+              new InputStreamReader(new FileInputStream(fileName), StandardCharsets.UTF_8), READ_BUFFER_SIZE);
+      this.fileName = fileName;
+      this.mapRegionSize = 0;
     } catch (FileNotFoundException e) {
       throw new IllegalStateException(e);
     }
   }
 
+  /**
+   * Create a DataSource which memory maps the input file in regions of the given size. Records are handed to the
+   * consumer as ByteBuffer slices of the mapped regions without copying. A region always ends at a line terminator, so
+   * a single record can't be longer than a region.
+   *
+   * @param fileName      Input file
+   * @param mapRegionSize Size of a mapped region in bytes
+   */
+  DataSource(String fileName, int mapRegionSize) {
+    if (mapRegionSize <= 0) {
+      throw new IllegalArgumentException(String.format("Invalid map region size {%d}", mapRegionSize));
+    }
+    if (!new File(fileName).isFile()) {
+      throw new IllegalStateException(new FileNotFoundException(fileName));
+    }
+
+    this.reader = null;
+    this.fileName = fileName;
+    this.mapRegionSize = mapRegionSize;
+  }
+
+  /**
+   * Split the input file into newline aligned byte ranges which are memory mapped and parsed concurrently. Records are
+   * handed to the consumer as JsonObject instances. Records of a range always arrive in order; with {@code ordered}
+   * all records arrive in file order, which needs an executor that runs tasks in submission order. Without an executor
+   * a fixed pool of daemon threads is created for each run.
+   *
+   * @param parallelism Number of byte ranges
+   * @param executor    Pool the ranges are parsed on or null
+   * @param ordered     Deliver records in file order
+   * @return DataSource
+   */
+  DataSource<E> setParallelism(int parallelism, ExecutorService executor, boolean ordered) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException(String.format("Invalid parallelism {%d}", parallelism));
+    }
+
+    this.parallelism = parallelism;
+    this.executor = executor;
+    this.ordered = ordered;
+    return this;
+  }
+
+  /**
+   * Read the input and hand records to the consumer. Except for unordered parallel mode the consumer is called on the
+   * calling thread, so a consumer which blocks holds back reading.
+   *
+   * @param consumer Consumer of record batches
+   */
   public void start(Consumer<E[]> consumer) {
     Objects.requireNonNull(consumer);
 
@@ -82,58 +168,308 @@ class DataSource<E> {
   }
 
   private void process(Consumer<E[]> consumer) {
-    while (!stopped) {
-      try {
-        boolean ready = isAvailable();
-        if (!ready) {
-          stopped = true;
-          break;
+    if (parallelism > 1) {
+      processParallel(consumer);
+      return;
+    } else if (mapRegionSize > 0) {
+      processMapped(consumer);
+      return;
+    }
+
+    processReader(consumer);
+  }
+
+  /**
+   * Read the input line by line and hand out the records in batches. Blank lines are skipped and the last line is a
+   * record even without a line terminator. The reader is closed once the end of the input is reached.
+   */
+  private void processReader(Consumer<E[]> consumer) {
+    if (eof) {
+      stopped = true;
+      return;
+    }
+
+    try {
+      Object[] batch = new Object[BATCH_SIZE];
+      int count = 0;
+      String line;
+      while (!stopped && null != (line = reader.readLine())) {
+        String record = line.trim();
+        if (record.isEmpty()) {
+          continue;
         }
 
-        int count = reader.read(buffer, offset, CHUNK_SIZE);
-        if (count <= 0) {
-          stopped = true;
+        batch[count++] = record;
+        if (count == BATCH_SIZE) {
+          consumer.accept(records(batch));
+          batch = new Object[BATCH_SIZE];
+          count = 0;
+        }
+      }
+
+      if (count > 0) {
+        consumer.accept(records(Arrays.copyOf(batch, count)));
+      }
+      if (!stopped) {
+        eof = true;
+        close();
+      }
+      stopped = true;
+    } catch (IOException e) {
+      err = true;
+      close();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void processMapped(Consumer<E[]> consumer) {
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+      mappedOffset =
+          processRange(
+              channel,
+              mappedOffset,
+              channel.size(),
+              mapRegionSize,
+              batch -> consumer.accept(records(batch)));
+      stopped = true;
+    } catch (IOException e) {
+      err = true;
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Split the file into newline aligned byte ranges and parse every range into JsonObject records on the executor.
+   * Batches of a range are always delivered in order. When ordered, all batches are handed to the consumer on the
+   * calling thread in file order; otherwise every range task hands its batches to the consumer as soon as they are
+   * parsed.
+   */
+  private void processParallel(Consumer<E[]> consumer) {
+    int regionSize = mapRegionSize > 0 ? mapRegionSize : MAP_REGION_SIZE;
+    ExecutorService pool =
+        null != executor
+            ? executor
+            : ExecutorBuilder.newInstance()
+                .setThreadCount(parallelism)
+                .setNamePrefix("crimson-parser-")
+                .setDaemon(true)
+                .build();
+    List<Future<?>> futures = new ArrayList<>();
+
+    try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+      long[] bounds = split(channel, parallelism);
+      List<BlockingQueue<Object[]>> queues = new ArrayList<>();
+
+      for (int i = 0; i + 1 < bounds.length; i++) {
+        long from = bounds[i], to = bounds[i + 1];
+        BlockingQueue<Object[]> queue = ordered ? new ArrayBlockingQueue<>(RANGE_QUEUE_SIZE) : null;
+        queues.add(queue);
+
+        futures.add(
+            pool.submit(
+                () -> {
+                  try {
+                    processRange(
+                        channel,
+                        from,
+                        to,
+                        regionSize,
+                        batch -> {
+                          parse(batch);
+                          if (ordered) {
+                            put(queue, batch);
+                          } else {
+                            consumer.accept(records(batch));
+                          }
+                        });
+                  } finally {
+                    if (ordered) {
+                      put(queue, END_OF_RANGE);
+                    }
+                  }
+                  return null;
+                }));
+      }
+
+      if (ordered) {
+        for (BlockingQueue<Object[]> queue : queues) {
+          for (Object[] batch = queue.take(); batch != END_OF_RANGE; batch = queue.take()) {
+            consumer.accept(records(batch));
+          }
+        }
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+      stopped = true;
+    } catch (IOException | ExecutionException e) {
+      err = true;
+      throw new IllegalStateException(e instanceof ExecutionException ? e.getCause() : e);
+    } catch (InterruptedException e) {
+      err = true;
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } finally {
+      futures.forEach(e -> e.cancel(true));
+      if (pool != executor) {
+        pool.shutdown();
+      }
+    }
+  }
+
+  /**
+   * Offsets of {@code count} byte ranges of the file. Every range except the last one ends right after a line
+   * terminator, and empty ranges are dropped.
+   */
+  private static long[] split(FileChannel channel, int count) throws IOException {
+    long size = channel.size();
+    long[] bounds = new long[count + 1];
+    int n = 0;
+    bounds[n++] = 0;
+
+    ByteBuffer probe = ByteBuffer.allocate(4_096);
+    for (int i = 1; i < count; i++) {
+      long position = Math.max(size / count * i, bounds[n - 1]);
+      boolean found = false;
+      while (!found && position < size) {
+        probe.clear();
+        int read = channel.read(probe, position);
+        if (read <= 0) {
           break;
-        } else if (count <= CHUNK_SIZE) {
-          Optional<String[]> opt = chomp();
-          if (opt.isPresent()) {
-            sharedPool.submit(() -> {
-              List<E> objects = Arrays.stream(opt.get()).map(e -> (E) e).collect(Collectors.toList());
-              consumer.accept((E[]) objects.toArray());
-            });
+        }
+        for (int j = 0; j < read; j++) {
+          if (probe.get(j) == '\n') {
+            position += j + 1;
+            found = true;
+            break;
           }
         }
-      } catch (IOException e) {
-        err = true;
-        close();
-        throw new IllegalStateException(e);
+        if (!found) {
+          position += read;
+        }
+      }
+
+      if (position >= size) {
+        break;
+      } else if (position > bounds[n - 1]) {
+        bounds[n++] = position;
+      }
+    }
+
+    bounds[n++] = size;
+    return Arrays.copyOf(bounds, n);
+  }
+
+  /**
+   * Map the byte range [from, to) of the file region by region and hand out its records in batches. Every region
+   * except the last one ends at a line terminator; the tail after it is mapped again with the next region.
+   *
+   * @return Offset up to which the range was processed
+   */
+  private long processRange(FileChannel channel, long from, long to, int regionSize, Consumer<Object[]> sink)
+      throws IOException {
+    long position = from;
+    while (!stopped && position < to) {
+      long length = Math.min(regionSize, to - position);
+      MappedByteBuffer region = channel.map(MapMode.READ_ONLY, position, length);
+
+      int end = (int) length;
+      if (position + length < to) {
+        while (end > 0 && region.get(end - 1) != '\n') {
+          --end;
+        }
+        if (end == 0) {
+          throw new IllegalStateException(
+              String.format("Record at offset %d is longer than map region size %d", position, regionSize));
+        }
       }
+
+      chomp(region, end, sink);
+      position += end;
     }
+    return position;
   }
 
-  private boolean isAvailable() {
-    while (true) {
-      try {
-        if (fileReader.ready()) {
-          return true;
+  /**
+   * Split the first {@code end} bytes of a mapped region on line terminators and hand out the records in batches.
+   * Blank lines are skipped and a trailing CR is dropped from every record.
+   */
+  private static void chomp(MappedByteBuffer region, int end, Consumer<Object[]> sink) {
+    Object[] batch = new Object[BATCH_SIZE];
+    int count = 0;
+
+    int start = 0;
+    while (start < end) {
+      int i = start;
+      while (i < end && region.get(i) != '\n') {
+        ++i;
+      }
+
+      int last = i;
+      while (last > start && isWhitespace(region.get(last - 1))) {
+        --last;
+      }
+      int first = start;
+      while (first < last && isWhitespace(region.get(first))) {
+        ++first;
+      }
+
+      if (first < last) {
+        ByteBuffer record = region.duplicate();
+        record.limit(last).position(first);
+        batch[count++] = record.slice();
+        if (count == BATCH_SIZE) {
+          sink.accept(batch);
+          batch = new Object[BATCH_SIZE];
+          count = 0;
         }
-        Thread.sleep(5_000);
-      } catch (IOException | InterruptedException e) {
-        return false;
       }
+
+      start = i + 1;
+    }
+
+    if (count > 0) {
+      sink.accept(Arrays.copyOf(batch, count));
     }
   }
 
-  private Optional<String[]> chomp() {
-    String s = new String(buffer);
-    int end = s.lastIndexOf(NEWLINE);
-    if (end < 0) { throw new IllegalStateException("Unable to find line terminator char in chars read"); }
-    offset += (end + 1);
-    for (int i = 0; i < buffer.length; i++) { buffer[i] = ' '; }
-    return Optional.ofNullable(s.substring(0, end + 1).split(NEWLINE));
+  /**
+   * Replace the record slices of a batch with parsed JsonObject records
+   */
+  private static void parse(Object[] batch) {
+    for (int i = 0; i < batch.length; i++) {
+      batch[i] = JsonObject.newInstance().cast(batch[i]);
+    }
+  }
+
+  private static void put(BlockingQueue<Object[]> queue, Object[] batch) {
+    try {
+      queue.put(batch);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Batches are built as Object[] so the parse stage can replace record slices in place, this is the single point
+   * where a batch is handed out as the consumer's element type.
+   */
+  @SuppressWarnings("unchecked")
+  private E[] records(Object[] batch) {
+    return (E[]) batch;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r';
   }
 
   private void close() {
+    if (null == reader) {
+      return;
+    }
+
     try {
       reader.close();
     } catch (IOException e) {
@@ -0,0 +1,140 @@
+package com.crimson.converter;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Builds the executors of a converter pipeline: a fixed pool of named platform threads, or a new virtual thread per
+ * task on JDKs that have them. Virtual threads are looked up by reflection so that the converter still runs on Java 8;
+ * without them a fixed pool is built instead.
+ */
+public class ExecutorBuilder {
+
+  /**
+   * Executors.newThreadPerTaskExecutor and Thread.ofVirtual, when the JDK provides them
+   */
+  private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+  private static final Method OF_VIRTUAL;
+
+  static {
+    Method newThreadPerTaskExecutor = null;
+    Method ofVirtual = null;
+    try {
+      newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+    } catch (NoSuchMethodException e) {
+      /* Fixed pools only */
+    }
+    NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+    OF_VIRTUAL = ofVirtual;
+  }
+
+  private int threadCount = Runtime.getRuntime().availableProcessors();
+  private String namePrefix = "crimson-";
+  private boolean daemon = false;
+  private boolean virtualThreads = false;
+
+  private ExecutorBuilder() {}
+
+  public static ExecutorBuilder newInstance() {
+    return new ExecutorBuilder();
+  }
+
+  /**
+   * Whether the JDK can run a virtual thread per task
+   */
+  public static boolean isVirtualThreadSupported() {
+    return null != NEW_THREAD_PER_TASK_EXECUTOR && null != OF_VIRTUAL;
+  }
+
+  public int getThreadCount() { return threadCount; }
+
+  /**
+   * Number of threads of a fixed pool. Not used for virtual threads, of which there is one per task.
+   */
+  public ExecutorBuilder setThreadCount(int threadCount) {
+    if (threadCount <= 0) {
+      throw new IllegalArgumentException(String.format("Invalid thread count {%d}", threadCount));
+    }
+    this.threadCount = threadCount;
+    return this;
+  }
+
+  public String getNamePrefix() { return namePrefix; }
+
+  /**
+   * Prefix of thread names, which are followed by the number of the thread
+   */
+  public ExecutorBuilder setNamePrefix(String namePrefix) {
+    if (null == namePrefix) {
+      throw new IllegalArgumentException("Thread name prefix can't be null");
+    }
+    this.namePrefix = namePrefix;
+    return this;
+  }
+
+  public boolean isDaemon() { return daemon; }
+
+  /**
+   * Whether platform threads are daemon threads, which don't keep the JVM alive. Virtual threads always are.
+   */
+  public ExecutorBuilder setDaemon(boolean daemon) {
+    this.daemon = daemon;
+    return this;
+  }
+
+  public boolean isVirtualThreads() { return virtualThreads; }
+
+  /**
+   * Run every task on a new virtual thread when the JDK supports it
+   */
+  public ExecutorBuilder setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  public ExecutorService build() {
+    if (virtualThreads && isVirtualThreadSupported()) {
+      return newVirtualThreadPerTaskExecutor();
+    }
+
+    String prefix = namePrefix;
+    boolean isDaemon = daemon;
+    AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool(threadCount, runnable -> {
+      Thread thread = new Thread(runnable, prefix + count.getAndIncrement());
+      thread.setDaemon(isDaemon);
+      return thread;
+    });
+  }
+
+  /**
+   * Shut an executor down, letting submitted tasks complete for up to the given time before interrupting them
+   *
+   * @return true if the executor terminated
+   */
+  public static boolean shutdown(ExecutorService executor, long timeout, TimeUnit unit) throws InterruptedException {
+    executor.shutdown();
+    if (executor.awaitTermination(timeout, unit)) {
+      return true;
+    }
+    executor.shutdownNow();
+    return executor.isTerminated();
+  }
+
+  private ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      Object builder = OF_VIRTUAL.invoke(null);
+      Method name = OF_VIRTUAL.getReturnType().getMethod("name", String.class, long.class);
+      builder = name.invoke(builder, namePrefix, 0L);
+      ThreadFactory factory = (ThreadFactory) OF_VIRTUAL.getReturnType().getMethod("factory").invoke(builder);
+      return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.crimson.converter;
+
+import java.util.List;
+
+/**
+ * Notified of columns found in the source after the sink header was written
+ */
+@FunctionalInterface
+public interface ISchemaObserver {
+
+  /**
+   * @param columns Names of the new columns in the order they were found
+   */
+  void columnsAdded(List<String> columns);
+}
@@ -1,26 +1,45 @@
 package com.crimson.converter;
 
-import static com.crimson.converter.DataFrame.DataFrameBuilder.newInstance;
-
+import com.crimson.converter.DataFrame.DataFrameBuilder;
+import com.crimson.converter.DataFrame.DataFrameWriter;
 import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.nio.charset.Charset;
-import java.util.Arrays;
-import java.util.Queue;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class SourceToSink implements IStreamObserver<Object> {
 
   /**
-   * Queue of records parsed from source
+   * Bounded queue of records parsed from source. The source blocks while the queue is full. The queue is only replaced
+   * before the pipeline starts.
+   */
+  private volatile int queueCapacity = 65_536;
+  private volatile BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+
+  /**
+   * Queue metrics
    */
-  private final Queue<Object> queue = new LinkedBlockingQueue<>();
+  private final AtomicInteger peakQueueDepth = new AtomicInteger();
+  private final LongAdder blockedPuts = new LongAdder();
+
+  /**
+   * Time the consumer waits for a record before checking its state again
+   */
+  private static final long POLL_TIMEOUT_MS = 100;
   /**
    * Source and sink files
    */
@@ -33,31 +52,128 @@ public class SourceToSink implements IStreamObserver<Object> {
   private int maximumRowLimit = 1_000_000;
 
   /**
-   * Maximum in memory size of DataFrame before it is flushed to persistence store
+   * Maximum in memory size of DataFrame before it is flushed to persistence store. The budget is shared by the
+   * consumers, each of them flushes its DataFrame at its share of it.
    */
   private int maximumMemoryMB = 100;
+  private static final long BYTES_PER_MB = 1_048_576;
+
+  /**
+   * Number of rows between checks of the memory budget. Estimating the size of a DataFrame visits every column, so it
+   * isn't done after every row.
+   */
+  private static final int SIZE_CHECK_INTERVAL = 64;
+
+  /**
+   * Number of records and approximate number of bytes sampled from the head of the source to infer the schema
+   */
+  private int sampleSize = DataFrameBuilder.SAMPLE_SIZE;
+  private long sampleBytes = DataFrameBuilder.SAMPLE_BYTES;
+
+  /**
+   * Memory map the source file instead of reading it through a buffered reader
+   */
+  private boolean memoryMapped = false;
+
+  /**
+   * Number of byte ranges of the source file parsed concurrently, the pool used for it and whether records are kept in
+   * file order
+   */
+  private int parallelism = 1;
+  private ExecutorService parsePool = null;
+  private boolean ordered = false;
+
+  /**
+   * Consumer threads. Every consumer builds its own DataFrame and flushes it to the shared output stream. Consumers run
+   * on the injected executor, or on a pool built for the pipeline and shut down once they exit.
+   */
+  private int consumerCount = 1;
+  private ExecutorService executor = null;
+  private ExecutorService consumerPool = null;
 
   /**
-   * Default encoding scheme
+   * Threads of the pools built for the pipeline: name prefix, daemon flag and whether tasks run on virtual threads
    */
-  private static final String DEFAULT_ENCODING_SCHEME = "utf-8";
+  private String threadNamePrefix = "crimson-";
+  private boolean daemon = false;
+  private boolean virtualThreads = false;
+  private final AtomicInteger activeConsumers = new AtomicInteger();
 
   /**
-   * Shared pool.
+   * Calls of {@link #stream(Object[])} still handing records to the queue. Consumers only exit on drain once none is
+   * left, so records a producer was putting while {@link #drain()} was called are not lost.
    */
-  static final ExecutorService sharedPool = Executors.newFixedThreadPool(2);
+  private final AtomicInteger activeProducers = new AtomicInteger();
+  private final CountDownLatch terminated = new CountDownLatch(1);
+  private volatile Throwable failure = null;
+
+  /**
+   * Lifecycle of the pipeline
+   */
+  private enum State {
+    NEW, RUNNING, DRAINING, STOPPED
+  }
+
+  private volatile State state = State.NEW;
+
+  /**
+   * Storage of the DataFrame columns of every consumer
+   */
+  private DataFrame.Storage storage = DataFrame.Storage.HEAP;
 
   /**
    * Output stream for writing to the sink file
    */
   OutputStream outputStream = null;
 
+  /**
+   * Columns of the sink in the order they were first written and every column seen so far, guarded by the output
+   * stream. Every flush writes its rows with the sink columns, so the rows of consumers whose DataFrames gained columns
+   * in another order line up.
+   */
+  private final Set<String> sinkColumns = new LinkedHashSet<>();
+  private final Set<String> seenColumns = new LinkedHashSet<>();
+
+  /**
+   * Handling of columns found after the header of the first flush was written. With repeated headers, a new header
+   * line holding the added columns is written before the rows that have them. Otherwise the sink stays a single table
+   * under its first header: with a schema observer the added columns are reported to it and left out of the sink,
+   * without one the pipeline fails rather than drop their values.
+   */
+  private boolean repeatHeaderOnSchemaChange = false;
+  private ISchemaObserver schemaObserver = null;
+
   public SourceToSink() {
   }
 
   @Override
   public void stream(Object[] records) {
-    Arrays.stream(records).forEach(e -> queue.add(e));
+    /* Registered before the state is checked, a consumer seeing no producer after drain() finds their records queued */
+    activeProducers.incrementAndGet();
+    BlockingQueue<Object> queue = this.queue;
+    try {
+      State current = state;
+      if (current == State.DRAINING || current == State.STOPPED) {
+        throw new IllegalStateException(String.format("SourceToSink is not accepting records in state {%s}", current));
+      }
+
+      for (Object record : records) {
+        if (!queue.offer(record)) {
+          /* Queue is full, so its depth is at capacity */
+          blockedPuts.increment();
+          peakQueueDepth.accumulateAndGet(queueCapacity, Math::max);
+          queue.put(record);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } finally {
+      activeProducers.decrementAndGet();
+    }
+
+    int depth = queue.size();
+    peakQueueDepth.accumulateAndGet(depth, Math::max);
   }
 
   public SourceToSink readFromSource(String source) {
@@ -92,59 +208,366 @@ public class SourceToSink implements IStreamObserver<Object> {
     return this;
   }
 
+  /**
+   * Start the consumers and read the source on the calling thread. Records keep being consumed after this returns,
+   * call {@link #drain()} once no more input is expected and {@link #awaitTermination(long, TimeUnit)} to wait for the
+   * remaining rows to be written.
+   */
   public SourceToSink start() {
-    /* Start polling queue */
-    DataFrame frame = newInstance();
-    sharedPool.submit(() -> doTask(frame));
+    synchronized (this) {
+      if (state != State.NEW) {
+        throw new IllegalStateException(String.format("SourceToSink can't be started in state {%s}", state));
+      }
+
+      /* Infer columns from a sample of the source */
+      DataFrameBuilder builder = DataFrameBuilder.newInstance(sourceFile).setSamplePolicy(sampleSize, sampleBytes);
+      DataFrame schema = builder.build(storage);
+      state = State.RUNNING;
 
+      /* Start polling queue */
+      consumerPool = null != executor ? executor : newExecutor("consumer-", consumerCount);
+      activeConsumers.set(consumerCount);
+      for (int i = 0; i < consumerCount; i++) {
+        DataFrame frame = i == 0 ? schema : builder.build(storage);
+        consumerPool.submit(() -> consume(frame));
+      }
+      if (consumerPool != executor) {
+        consumerPool.shutdown();
+      }
+    }
+
+    ExecutorService pool = null != parsePool || parallelism == 1 ? parsePool : newExecutor("parser-", parallelism);
     try {
       /* Initialize DataSource */
-      DataSource<Object> dataSource = new DataSource<>(sourceFile);
+      DataSource<Object> dataSource =
+          memoryMapped || parallelism > 1
+              ? new DataSource<>(sourceFile, DataSource.MAP_REGION_SIZE)
+              : new DataSource<>(sourceFile);
+      dataSource.setParallelism(parallelism, pool, ordered);
       dataSource.start(this::stream);
     } catch (Exception e) {
+      stop();
       throw new IllegalStateException(e);
+    } finally {
+      if (pool != parsePool) {
+        pool.shutdown();
+      }
     }
 
     return this;
   }
 
-  private void doTask(DataFrame frame) {
+  /**
+   * Stop accepting records. Consumers wait for the records being streamed at that point, write out every record still
+   * queued and their last rows, then exit.
+   */
+  public SourceToSink drain() {
+    synchronized (this) {
+      if (state == State.RUNNING) {
+        state = State.DRAINING;
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Stop right away. Records still queued and rows not yet flushed are dropped, and consumers running on the pool built
+   * for the pipeline are interrupted.
+   */
+  public SourceToSink stop() {
+    ExecutorService pool;
+    synchronized (this) {
+      if (state == State.NEW) {
+        terminated.countDown();
+      }
+      state = State.STOPPED;
+      pool = consumerPool;
+    }
+    queue.clear();
+    if (null != pool && pool != executor) {
+      pool.shutdownNow();
+    }
+    return this;
+  }
+
+  /**
+   * Wait for all consumers to exit after {@link #drain()} or {@link #stop()}. Once they exited, the pool built for the
+   * pipeline is given the rest of the timeout to terminate before its threads are interrupted.
+   *
+   * @return true if the consumers exited, false if the timeout elapsed first
+   * @throws IllegalStateException if a consumer failed
+   */
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    boolean done = terminated.await(timeout, unit);
+    if (done && null != consumerPool && consumerPool != executor) {
+      done = ExecutorBuilder.shutdown(consumerPool, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+    if (null != failure) {
+      throw new IllegalStateException(String.format("SourceToSink consumer failed: {%s}", failure), failure);
+    }
+    return done;
+  }
+
+  public boolean isTerminated() { return terminated.getCount() == 0; }
+
+  private ExecutorService newExecutor(String name, int threadCount) {
+    return ExecutorBuilder.newInstance()
+        .setThreadCount(threadCount)
+        .setNamePrefix(threadNamePrefix + name)
+        .setDaemon(daemon)
+        .setVirtualThreads(virtualThreads)
+        .build();
+  }
+
+  private void consume(DataFrame frame) {
+    long maximumBytes = maximumMemoryMB * BYTES_PER_MB / consumerCount;
+    DataFrameWriter writer = new DataFrameWriter(outputStream);
     try {
-      Object object = queue.poll();
+      while (true) {
+        State current = state;
+        if (current == State.STOPPED
+            || (current == State.DRAINING && activeProducers.get() == 0 && queue.isEmpty())) {
+          break;
+        }
+
+        Object object = poll();
+        if (null == object) {
+          continue;
+        }
+
+        /* If over row limit or memory budget then flush to output stream before writing new rows */
+        int rowCount = frame.getRowCount();
+        if (rowCount >= maximumRowLimit
+            || (rowCount > 0 && rowCount % SIZE_CHECK_INTERVAL == 0 && frame.getEstimatedSize() >= maximumBytes)) {
+          flush(frame, writer);
+        }
+        frame.addRow(object);
+      }
+
+      if (state == State.DRAINING) {
+        flush(frame, writer);
+      }
+    } catch (InterruptedException e) {
+      /* Consumers are interrupted by stop(), any other interrupt fails the pipeline */
+      if (state != State.STOPPED) {
+        failure = e;
+        stop();
+      }
+    } catch (Throwable e) {
+      failure = e;
+      stop();
+    } finally {
+      frame.close();
+      if (activeConsumers.decrementAndGet() == 0) {
+        closeOutputStream();
+        terminated.countDown();
+      }
+    }
+  }
 
-      /* If over row limit then flush to output stream before writing new rows */
-      if (frame.getRowCount() >= maximumRowLimit) {
+  private void flush(DataFrame frame, DataFrameWriter writer) throws IOException {
+    if (frame.getRowCount() == 0) {
+      return;
+    }
 
-        String output = frame.toString();
+    synchronized (outputStream) {
+      boolean first = seenColumns.isEmpty();
+      List<String> added = new ArrayList<>();
+      for (Column column : frame.getColumns()) {
+        if (seenColumns.add(column.name)) {
+          added.add(column.name);
+        }
+      }
 
-        if (null != output && output.length() > 0) {
-          byte[] bytes = output.getBytes(Charset.forName(DEFAULT_ENCODING_SCHEME));
-          if (null != bytes && bytes.length > 0) {
-            outputStream.write(bytes);
-            outputStream.flush();
-            frame.clear();
-          }
+      if (!added.isEmpty()) {
+        if (first || repeatHeaderOnSchemaChange) {
+          sinkColumns.addAll(added);
+          writer.writeHeader(sinkColumns);
+        }
+        if (!first && null != schemaObserver) {
+          schemaObserver.columnsAdded(added);
+        } else if (!first && !repeatHeaderOnSchemaChange) {
+          throw new IllegalStateException(
+              String.format(
+                  "Columns {%s} found after the sink header was written, set a schema observer or repeated headers "
+                      + "to accept them", String.join(",", added)));
         }
       }
+      writer.writeRows(frame, sinkColumns);
+      writer.flush();
+      outputStream.flush();
+    }
+    frame.clear();
+  }
 
-      frame.addRow(object);
-    } catch (Exception e) {
-      throw new IllegalStateException(String.format("This task should not throw an exception. Task failed: {%s}", e));
+  private void closeOutputStream() {
+    if (null == outputStream) {
+      return;
+    }
+
+    try {
+      outputStream.close();
+    } catch (IOException e) {
+      if (null == failure) {
+        failure = e;
+      }
     }
+  }
 
-    doTask(frame);
+  /**
+   * Take the next record off the queue, waiting a short while for one to arrive
+   *
+   * @return Record or null if none arrived in time
+   */
+  Object poll() throws InterruptedException {
+    return queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
   }
 
   public int getMaxRowLimit() { return maximumRowLimit; }
 
+  public int getQueueCapacity() { return queueCapacity; }
+
+  /**
+   * Number of records waiting in the queue
+   */
+  public int getQueueDepth() { return queue.size(); }
+
+  /**
+   * Highest number of records seen waiting in the queue. The depth is sampled after every batch of records and whenever
+   * the queue is full, so a peak reached and drained within a batch is under-reported.
+   */
+  public int getPeakQueueDepth() { return peakQueueDepth.get(); }
+
+  /**
+   * Number of records for which the source had to wait for free space in the queue
+   */
+  public long getBlockedPuts() { return blockedPuts.sum(); }
+
+  public synchronized SourceToSink setQueueCapacity(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException(String.format("Invalid queue capacity {%d}", capacity));
+    }
+    if (state != State.NEW) {
+      throw new IllegalStateException(String.format("Queue capacity can't be changed in state {%s}", state));
+    }
+    if (!queue.isEmpty()) {
+      throw new IllegalStateException("Queue capacity can't be changed while records are queued");
+    }
+    queueCapacity = capacity;
+    queue = new ArrayBlockingQueue<>(capacity);
+    return this;
+  }
+
   public SourceToSink setMaximumRowLimit(int maxRowLimit) {
     maximumRowLimit = maxRowLimit;
     return this;
   }
 
+  public int getConsumerCount() { return consumerCount; }
+
+  public SourceToSink setConsumerCount(int consumerCount) {
+    if (consumerCount <= 0) {
+      throw new IllegalArgumentException(String.format("Invalid consumer count {%d}", consumerCount));
+    }
+    this.consumerCount = consumerCount;
+    return this;
+  }
+
+  /**
+   * Run the consumers on the given executor instead of a pool built for the pipeline. The executor must be able to run
+   * all consumers at once, as each of them runs until the pipeline terminates, and it is not shut down by the pipeline.
+   */
+  public SourceToSink setExecutor(ExecutorService executor) {
+    this.executor = Objects.requireNonNull(executor);
+    return this;
+  }
+
+  public SourceToSink setThreadNamePrefix(String threadNamePrefix) {
+    this.threadNamePrefix = Objects.requireNonNull(threadNamePrefix);
+    return this;
+  }
+
+  public SourceToSink setDaemon(boolean daemon) {
+    this.daemon = daemon;
+    return this;
+  }
+
+  /**
+   * Run every consumer and every parsed range of the source on a new virtual thread, when the JDK supports them
+   */
+  public SourceToSink setVirtualThreads(boolean virtualThreads) {
+    this.virtualThreads = virtualThreads;
+    return this;
+  }
+
+  /**
+   * Observer of columns found after the header was written. Their values are left out of the sink, which stays a
+   * single CSV table. The observer is called by the consumer flushing the rows that hold them, while other consumers
+   * wait to write, so it should return quickly. Without an observer or repeated headers such columns fail the
+   * pipeline.
+   */
+  public SourceToSink setSchemaObserver(ISchemaObserver schemaObserver) {
+    this.schemaObserver = Objects.requireNonNull(schemaObserver);
+    return this;
+  }
+
+  /**
+   * Write a new header line whenever columns are added after the first header, so their values reach the sink. A sink
+   * written this way is not a single CSV table: rows after a repeated header are wider than the ones before it.
+   */
+  public SourceToSink setRepeatHeaderOnSchemaChange(boolean repeatHeaderOnSchemaChange) {
+    this.repeatHeaderOnSchemaChange = repeatHeaderOnSchemaChange;
+    return this;
+  }
+
+  public SourceToSink setStorage(DataFrame.Storage storage) {
+    this.storage = Objects.requireNonNull(storage);
+    return this;
+  }
+
+  public int getSampleSize() { return sampleSize; }
+
+  public long getSampleBytes() { return sampleBytes; }
+
+  /**
+   * Set how much of the source is sampled to infer the schema. Sampling stops at whichever limit is reached first.
+   */
+  public SourceToSink setSamplePolicy(int sampleSize, long sampleBytes) {
+    if (sampleSize <= 0 || sampleBytes <= 0) {
+      throw new IllegalArgumentException(
+          String.format("Invalid sample policy of {%d} records and {%d} bytes", sampleSize, sampleBytes));
+    }
+    this.sampleSize = sampleSize;
+    this.sampleBytes = sampleBytes;
+    return this;
+  }
+
+  public SourceToSink setMemoryMapped(boolean memoryMapped) {
+    this.memoryMapped = memoryMapped;
+    return this;
+  }
+
+  public SourceToSink setParallelism(int parallelism) {
+    return setParallelism(parallelism, null, false);
+  }
+
+  public SourceToSink setParallelism(int parallelism, ExecutorService parsePool, boolean ordered) {
+    if (parallelism <= 0) {
+      throw new IllegalArgumentException(String.format("Invalid parallelism {%d}", parallelism));
+    }
+    this.parallelism = parallelism;
+    this.parsePool = parsePool;
+    this.ordered = ordered;
+    return this;
+  }
+
+  public int getMaximumMB() { return maximumMemoryMB; }
+
   public SourceToSink setMaximumMB(int memoryMB) {
-    if (memoryMB != 1 && memoryMB != 5 && memoryMB != 25 && memoryMB != 100) {
-      throw new IllegalArgumentException("Maximum in memory size of DataFrame in MB can be either 1, 5, 25 or 100");
+    if (memoryMB <= 0) {
+      throw new IllegalArgumentException(
+          String.format("Maximum in memory size of DataFrame in MB must be positive, found {%d}", memoryMB));
     }
     maximumMemoryMB = memoryMB;
     return this;
@@ -0,0 +1,319 @@
+package com.crimson.types;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Insertion ordered map backed by parallel key and value arrays. Small maps are searched linearly, which needs no
+ * entry objects and touches a single array; past {@link #INDEX_THRESHOLD} entries an open addressing hash index of
+ * entry positions is kept as well. Removal shifts the entries after the removed one, which is cheap for the small
+ * objects this map is meant for.
+ */
+class CompactMap<K, V> extends AbstractMap<K, V> {
+
+  /**
+   * Number of entries up to which keys are searched linearly
+   */
+  static final int INDEX_THRESHOLD = 8;
+
+  private static final int INITIAL_CAPACITY = 4;
+  private static final Object[] EMPTY = new Object[0];
+
+  private Object[] keys = EMPTY;
+  private Object[] values = EMPTY;
+  private int size = 0;
+
+  /**
+   * Hash index of entry positions plus one, zero for an empty slot. Null while the map is small.
+   */
+  private int[] index;
+  private int modCount = 0;
+
+  private Set<Map.Entry<K, V>> entrySet;
+
+  CompactMap() {}
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int i = indexOf(key);
+    return i >= 0 ? (V) values[i] : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    int i = indexOf(key);
+    if (i >= 0) {
+      V previous = (V) values[i];
+      values[i] = value;
+      return previous;
+    }
+
+    if (size == keys.length) {
+      grow();
+    }
+    keys[size] = key;
+    values[size] = value;
+    ++size;
+    ++modCount;
+
+    if (null != index) {
+      insert(size - 1);
+    } else if (size > INDEX_THRESHOLD) {
+      rebuildIndex();
+    }
+    return null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    int i = indexOf(key);
+    if (i < 0) {
+      return null;
+    }
+
+    V previous = (V) values[i];
+    removeAt(i);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    keys = EMPTY;
+    values = EMPTY;
+    size = 0;
+    index = null;
+    ++modCount;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    int expected = modCount;
+    for (int i = 0; i < size; i++) {
+      action.accept((K) keys[i], (V) values[i]);
+      if (modCount != expected) {
+        throw new ConcurrentModificationException();
+      }
+    }
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    if (null == entrySet) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private int indexOf(Object key) {
+    if (null == index) {
+      for (int i = 0; i < size; i++) {
+        Object k = keys[i];
+        if (k == key || (null != key && key.equals(k))) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    int mask = index.length - 1;
+    for (int slot = hash(key) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+      Object k = keys[index[slot] - 1];
+      if (k == key || (null != key && key.equals(k))) {
+        return index[slot] - 1;
+      }
+    }
+    return -1;
+  }
+
+  private void removeAt(int i) {
+    int moved = size - i - 1;
+    if (moved > 0) {
+      System.arraycopy(keys, i + 1, keys, i, moved);
+      System.arraycopy(values, i + 1, values, i, moved);
+    }
+    --size;
+    keys[size] = null;
+    values[size] = null;
+    ++modCount;
+
+    if (null != index) {
+      if (size > INDEX_THRESHOLD) {
+        rebuildIndex();
+      } else {
+        index = null;
+      }
+    }
+  }
+
+  private void grow() {
+    int capacity = keys.length == 0 ? INITIAL_CAPACITY : keys.length << 1;
+    Object[] grownKeys = new Object[capacity];
+    Object[] grownValues = new Object[capacity];
+    System.arraycopy(keys, 0, grownKeys, 0, size);
+    System.arraycopy(values, 0, grownValues, 0, size);
+    keys = grownKeys;
+    values = grownValues;
+
+    if (null != index) {
+      rebuildIndex();
+    }
+  }
+
+  /**
+   * Index every entry in a table with at least twice as many slots as the key array
+   */
+  private void rebuildIndex() {
+    index = new int[Integer.highestOneBit(Math.max(keys.length, INDEX_THRESHOLD)) << 2];
+    for (int i = 0; i < size; i++) {
+      insert(i);
+    }
+  }
+
+  private void insert(int i) {
+    int mask = index.length - 1;
+    int slot = hash(keys[i]) & mask;
+    while (index[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+    index[slot] = i + 1;
+  }
+
+  private static int hash(Object key) {
+    int h = Objects.hashCode(key);
+    return h ^ (h >>> 16);
+  }
+
+  private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+    @Override
+    public Iterator<Map.Entry<K, V>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      CompactMap.this.clear();
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+    private int cursor = 0;
+    private int last = -1;
+    private int expected = modCount;
+
+    @Override
+    public boolean hasNext() {
+      return cursor < size;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      if (modCount != expected) {
+        throw new ConcurrentModificationException();
+      }
+      if (cursor >= size) {
+        throw new NoSuchElementException();
+      }
+      last = cursor++;
+      return new Entry(last);
+    }
+
+    @Override
+    public void remove() {
+      if (last < 0) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expected) {
+        throw new ConcurrentModificationException();
+      }
+      removeAt(last);
+      cursor = last;
+      last = -1;
+      expected = modCount;
+    }
+  }
+
+  /**
+   * Entry of the map at the time it was returned. Setting its value writes through to the map while the entry is still
+   * at the same position, once its key was removed or moved the entry is detached and only its own value changes.
+   */
+  private final class Entry implements Map.Entry<K, V> {
+
+    private final int i;
+    private final K key;
+    private V value;
+
+    @SuppressWarnings("unchecked")
+    Entry(int i) {
+      this.i = i;
+      this.key = (K) keys[i];
+      this.value = (V) values[i];
+    }
+
+    @Override
+    public K getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      V previous = this.value;
+      this.value = value;
+      if (i < size && keys[i] == key) {
+        values[i] = value;
+      }
+      return previous;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> that = (Map.Entry<?, ?>) o;
+      return Objects.equals(key, that.getKey()) && Objects.equals(value, that.getValue());
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hashCode(key) ^ Objects.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + value;
+    }
+  }
+}
@@ -3,12 +3,13 @@ package com.crimson.types;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.Writer;
 import java.nio.charset.Charset;
 
 public interface IJsonWriter<T extends JsonType> extends Closeable {
 
   /**
-   * Write a JsonType object to an output stream in serialized format using the default encoding scheme
+   * Write a JsonType object to an output stream in serialized format using UTF-8 encoding
    *
    * @param object Input JsonType object
    * @param out    output stream
@@ -25,10 +26,18 @@ public interface IJsonWriter<T extends JsonType> extends Closeable {
   void write(JsonType<T> object, OutputStream out, Charset charset) throws IOException;
 
   /**
-   * Write an array of JsonType object to an output stream in serialized format using the default encoding scheme.
+   * Write an array of JsonType object to an output stream as UTF-8 encoded lines.
    *
    * @param objects Input array of JsonType objects
    * @param out     output stream
    */
   void write(JsonType<T>[] objects, OutputStream out) throws IOException;
+
+  /**
+   * Write a JsonType object to a writer in serialized format
+   *
+   * @param object Input JsonType object
+   * @param writer output writer
+   */
+  void write(JsonType<T> object, Writer writer) throws IOException;
 }
@@ -1,135 +1,1267 @@
 package com.crimson.types;
 
 import java.io.Closeable;
-import java.io.StringReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.util.Stack;
-import javax.json.Json;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import javax.json.JsonException;
 import javax.json.stream.JsonLocation;
 import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParsingException;
 
-class JParser implements JsonParser, Closeable {
+/**
+ * Streaming JSON lexer over strings, chars, UTF-8 bytes, byte buffers and input streams. A parser can be reset to new
+ * input and reused across documents, keeping its buffers. {@link #forThread()} gives every thread a parser of its own.
+ */
+public class JParser implements JsonParser, Closeable {
 
-  private final Stack<Event> events = new Stack<>();
+  /**
+   * Lexer states i.e. the kind of token expected next
+   */
+  private static final int EXPECT_VALUE = 0;
+  private static final int EXPECT_VALUE_OR_END_ARRAY = 1;
+  private static final int EXPECT_KEY_OR_END_OBJECT = 2;
+  private static final int EXPECT_COLON = 3;
+  private static final int EXPECT_COMMA_OR_END = 4;
+  private static final int EXPECT_EOF = 5;
 
   /**
-   * State of the parser
+   * Initial nesting depth supported without growing the scope stack
    */
-  private final JsonParser jsonParser;
+  private static final int INITIAL_DEPTH = 32;
 
-  private final String input;
+  /**
+   * Max number of digits of an integral number that always fits in a long
+   */
+  private static final int MAX_LONG_DIGITS = 18;
+
+  /**
+   * Max number of significant digits of a decimal number that always round trips through a double
+   */
+  private static final int MAX_DOUBLE_DIGITS = 15;
+
+  /**
+   * Powers of ten that are exactly representable as a double
+   */
+  private static final double[] POWERS_OF_TEN = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  /**
+   * Size of the char and byte windows used when decoding UTF-8 input
+   */
+  private static final int BUFFER_SIZE = 8_192;
+
+  private static final char[] EMPTY = new char[0];
+
+  /**
+   * Largest char buffer kept by a parser for the next document (1 MB)
+   */
+  private static final int MAX_RETAINED_SIZE = 524_288;
+
+  /**
+   * Run the structural validation pre-pass on every input. Syntax errors are always caught inline by the lexer, the
+   * pre-pass only rejects malformed input before any token is produced. Off by default for trusted input.
+   */
+  private static final boolean VALIDATE_INPUT = Boolean.getBoolean("crimson.parser.validate");
+
+  /**
+   * Capacity of the key table of every thread parser. Off by default.
+   */
+  private static final int KEY_TABLE_SIZE = Integer.getInteger("crimson.parser.keyTableSize", 0);
+
+  /**
+   * Input buffer
+   */
+  private char[] buffer;
+  private int position;
+  private int limit;
+
+  /**
+   * UTF-8 input (if any). Bytes between bytePosition and byteLimit are yet to be decoded into buffer. Bytes are refilled
+   * either from a direct byte buffer or an input stream, array backed input is decoded in place.
+   */
+  private byte[] bytes;
+  private int bytePosition;
+  private int byteLimit;
+  private ByteBuffer byteSource;
+  private InputStream streamSource;
+
+  /**
+   * Number of chars discarded from the start of buffer and whether the current token must be retained on refill
+   */
+  private long consumed = 0;
+  private boolean marked = false;
+
+  /**
+   * Scope stack. An entry is true for an object and false for an array.
+   */
+  private boolean[] scopes = new boolean[INITIAL_DEPTH];
+  private int depth = 0;
+
+  /**
+   * Scope stack of {@link #validate()}, kept apart from the parse state so that validation can run at any time
+   */
+  private boolean[] validationScopes = new boolean[INITIAL_DEPTH];
+  private int state = EXPECT_VALUE;
+
+  /**
+   * Current event and the event pushed back by the caller (if any)
+   */
+  private Event current;
+  private Event pushedBack;
+
+  /**
+   * Bounds of the last string or number token inside buffer
+   */
+  private int tokenStart;
+  private int tokenEnd;
+  private int valueStart;
+  private boolean escaped;
+  private boolean integral;
+
+  /**
+   * Double value of the last number token and, when it round trips, its decimal digits and scale as written. Computed
+   * on demand.
+   */
+  private boolean scanned;
+  private boolean exactDouble;
+  private double doubleValue;
+  private long unscaledValue;
+  private int scale;
+  private final StringBuilder builder = new StringBuilder();
+
+  /**
+   * Location of the lexer in input
+   */
+  private long line = 1;
+  private long lineStart = 0;
+
+  /**
+   * Parser of every thread, reused by {@link JsonObject} and {@link JsonArray} across documents
+   */
+  private static final ThreadLocal<JParser> THREAD_PARSER =
+      ThreadLocal.withInitial(
+          () -> {
+            JParser parser = new JParser();
+            if (KEY_TABLE_SIZE > 0) {
+              parser.setKeyTable(KeyTable.newInstance(KEY_TABLE_SIZE));
+            }
+            return parser;
+          });
+
+  /**
+   * Char and byte buffers owned by the parser. They are kept across documents, unless they grew past
+   * {@link #MAX_RETAINED_SIZE} for a large document.
+   */
+  private char[] chars;
+  private byte[] scratch;
+
+  /**
+   * Whether the parser has input which hasn't been closed yet
+   */
+  private boolean open = false;
+
+  /**
+   * Symbol table resolving object keys to shared Strings (if any). Kept across documents.
+   */
+  private KeyTable keyTable;
 
   private JParser() {
-    this(null);
+    buffer = EMPTY;
+    state = EXPECT_EOF;
+  }
+
+  /**
+   * Create a parser without input, to be given input by one of the reset methods
+   *
+   * @return Parser instance
+   */
+  public static JParser newInstance() {
+    return new JParser();
+  }
+
+  public static JParser newInstance(String input) {
+    return new JParser().reset(input, VALIDATE_INPUT);
+  }
+
+  public static JParser newInstance(String input, boolean validate) {
+    return new JParser().reset(input, validate);
+  }
+
+  /**
+   * Create a parser over a range of chars. The array is shared with the parser and must not be modified while parsing.
+   *
+   * @param input  Input chars
+   * @param offset Offset of the first char of JSON input
+   * @param length Number of chars of JSON input
+   * @return Parser instance
+   */
+  static JParser newInstance(char[] input, int offset, int length) {
+    return new JParser().reset(input, offset, length);
+  }
+
+  /**
+   * Create a parser for UTF-8 encoded input. Bytes are decoded on the fly as tokens are read.
+   *
+   * @param input  UTF-8 bytes
+   * @param offset Offset of the first byte of JSON input
+   * @param length Number of bytes of JSON input
+   * @return Parser instance
+   */
+  public static JParser newInstance(byte[] input, int offset, int length) {
+    return new JParser().reset(input, offset, length);
+  }
+
+  /**
+   * Create a parser for the remaining UTF-8 bytes of a heap or direct buffer. The position of the buffer is not
+   * modified.
+   *
+   * @param input UTF-8 byte buffer
+   * @return Parser instance
+   */
+  public static JParser newInstance(ByteBuffer input) {
+    return new JParser().reset(input);
+  }
+
+  /**
+   * Create a parser for a UTF-8 input stream. The stream is read in chunks and is not closed by the parser.
+   *
+   * @param input UTF-8 input stream
+   * @return Parser instance
+   */
+  public static JParser newInstance(InputStream input) {
+    return new JParser().reset(input);
+  }
+
+  /**
+   * Create a parser for an arbitrary input. Raw bytes, byte buffers and input streams are decoded as UTF-8, all other
+   * objects are parsed from their string representation.
+   *
+   * @param input Input object
+   * @return Parser instance
+   */
+  static JParser newInstance(Object input) {
+    return new JParser().reset(input);
   }
 
-  private JParser(String input) {
-    if (!validate(input)) {
+  /**
+   * Parser of the calling thread reset to the given input. A new parser is created when the parser of the thread is
+   * still parsing another document. The parser must be closed once the document is parsed.
+   *
+   * @param input Input object, see {@link #newInstance(Object)}
+   * @return Parser instance
+   */
+  static JParser forThread(Object input) {
+    JParser parser = THREAD_PARSER.get();
+    return parser.open ? newInstance(input) : parser.reset(input);
+  }
+
+  /**
+   * Parser of the calling thread. It can be reset to new input once the previous document is parsed and closed, and
+   * must not be handed to other threads.
+   *
+   * @return Parser instance
+   */
+  public static JParser forThread() {
+    return THREAD_PARSER.get();
+  }
+
+  /**
+   * Resolve object keys through a symbol table, so that keys repeated across the documents read by this parser share a
+   * String instance. Null turns the table off.
+   *
+   * @param keyTable Key table
+   * @return This parser
+   */
+  public JParser setKeyTable(KeyTable keyTable) {
+    this.keyTable = keyTable;
+    return this;
+  }
+
+  public KeyTable getKeyTable() {
+    return keyTable;
+  }
+
+  /**
+   * Reset the parser to new input, keeping its buffers
+   *
+   * @param input JSON input
+   * @return This parser
+   */
+  public JParser reset(String input) {
+    return reset(input, VALIDATE_INPUT);
+  }
+
+  public JParser reset(String input, boolean validate) {
+    if (null == input) {
+      throw new IllegalArgumentException("JSON input can't be null");
+    }
+
+    clear();
+    int length = input.length();
+    buffer = chars(length);
+    input.getChars(0, length, buffer, 0);
+    limit = length;
+
+    if (validate && !validate()) {
+      close();
       throw new IllegalArgumentException(
           String.format("JSON input {%s} is not valid or formatted correct", input));
     }
+    return this;
+  }
 
-    this.input = input;
-    this.jsonParser = Json.createParser(new StringReader(this.input));
+  /**
+   * Reset the parser to a range of chars, see {@link #newInstance(char[], int, int)}
+   */
+  JParser reset(char[] input, int offset, int length) {
+    clear();
+    buffer = input;
+    position = offset;
+    limit = offset + length;
+    consumed = -offset;
+    return this;
   }
 
-  public static JParser newInstance(String input) {
-    return new JParser(input);
+  /**
+   * Reset the parser to a range of UTF-8 bytes, see {@link #newInstance(byte[], int, int)}
+   */
+  public JParser reset(byte[] input, int offset, int length) {
+    if (null == input) {
+      throw new IllegalArgumentException("JSON input can't be null");
+    }
+    if (offset < 0 || length < 0 || offset + length > input.length) {
+      throw new IndexOutOfBoundsException(
+          String.format("Invalid offset {%d} and length {%d} for input of size {%d}", offset, length, input.length));
+    }
+
+    clear();
+    bytes = input;
+    bytePosition = offset;
+    byteLimit = offset + length;
+    buffer = chars(Math.min(BUFFER_SIZE, length + 2));
+    skipByteOrderMark();
+    return this;
+  }
+
+  /**
+   * Reset the parser to the remaining bytes of a byte buffer, see {@link #newInstance(ByteBuffer)}
+   */
+  public JParser reset(ByteBuffer input) {
+    if (null == input) {
+      throw new IllegalArgumentException("JSON input can't be null");
+    }
+
+    clear();
+    if (input.hasArray()) {
+      bytes = input.array();
+      bytePosition = input.arrayOffset() + input.position();
+      byteLimit = input.arrayOffset() + input.limit();
+    } else {
+      byteSource = input.duplicate();
+      bytes = scratch(Math.min(BUFFER_SIZE, input.remaining()));
+    }
+    buffer = chars(Math.min(BUFFER_SIZE, input.remaining() + 2));
+    skipByteOrderMark();
+    return this;
+  }
+
+  /**
+   * Reset the parser to an input stream, see {@link #newInstance(InputStream)}
+   */
+  public JParser reset(InputStream input) {
+    if (null == input) {
+      throw new IllegalArgumentException("JSON input can't be null");
+    }
+
+    clear();
+    streamSource = input;
+    bytes = scratch(BUFFER_SIZE);
+    buffer = chars(BUFFER_SIZE);
+    skipByteOrderMark();
+    return this;
+  }
+
+  /**
+   * Reset the parser to an arbitrary input, see {@link #newInstance(Object)}
+   */
+  JParser reset(Object input) {
+    if (input instanceof byte[]) {
+      byte[] array = (byte[]) input;
+      return reset(array, 0, array.length);
+    } else if (input instanceof ByteBuffer) {
+      return reset((ByteBuffer) input);
+    } else if (input instanceof InputStream) {
+      return reset((InputStream) input);
+    }
+    return reset(input.toString());
+  }
+
+  /**
+   * Reset the state of the lexer for new input
+   */
+  private void clear() {
+    buffer = EMPTY;
+    position = limit = 0;
+    bytes = null;
+    bytePosition = byteLimit = 0;
+    byteSource = null;
+    streamSource = null;
+    consumed = 0;
+    marked = false;
+    depth = 0;
+    state = EXPECT_VALUE;
+    current = null;
+    pushedBack = null;
+    tokenStart = tokenEnd = valueStart = 0;
+    escaped = integral = false;
+    scanned = exactDouble = false;
+    builder.setLength(0);
+    line = 1;
+    lineStart = 0;
+    open = true;
+  }
+
+  /**
+   * Owned char buffer of at least the given size
+   */
+  private char[] chars(int size) {
+    if (null != chars && chars.length >= size) {
+      return chars;
+    }
+    char[] array = new char[size];
+    if (size <= MAX_RETAINED_SIZE) {
+      chars = array;
+    }
+    return array;
+  }
+
+  /**
+   * Owned byte buffer of at least the given size
+   */
+  private byte[] scratch(int size) {
+    if (null == scratch || scratch.length < size) {
+      scratch = new byte[size];
+    }
+    return scratch;
   }
 
   public boolean hasNext() {
-    return jsonParser.hasNext();
+    if (null != pushedBack) {
+      return true;
+    }
+
+    if (state != EXPECT_EOF) {
+      return true;
+    }
+
+    int c = skipWhitespace();
+    if (c < 0) {
+      return false;
+    }
+
+    throw unexpected(c, "EOF");
   }
 
   public Event next() {
-    if (events.size() == 0) {
-      return jsonParser.next();
+    if (null != pushedBack) {
+      Event event = pushedBack;
+      pushedBack = null;
+      return event;
     }
 
-    return events.pop();
+    marked = false;
+    int c = skipWhitespace();
+    switch (state) {
+      case EXPECT_VALUE:
+        return current = readValue(c);
+      case EXPECT_VALUE_OR_END_ARRAY:
+        if (c == ']') {
+          return current = endScope(false);
+        }
+        return current = readValue(c);
+      case EXPECT_KEY_OR_END_OBJECT:
+        if (c == '}') {
+          return current = endScope(true);
+        }
+        return current = readKey(c);
+      case EXPECT_COLON:
+        if (c != ':') {
+          throw unexpected(c, "':'");
+        }
+        return current = readValue(skipWhitespace());
+      case EXPECT_COMMA_OR_END:
+        boolean object = scopes[depth - 1];
+        if (c == ',') {
+          return current = object ? readKey(skipWhitespace()) : readValue(skipWhitespace());
+        } else if (c == '}' && object) {
+          return current = endScope(true);
+        } else if (c == ']' && !object) {
+          return current = endScope(false);
+        }
+        throw unexpected(c, object ? "',' or '}'" : "',' or ']'");
+      default:
+        if (c < 0) {
+          throw new NoSuchElementException("No more events left in JSON input");
+        }
+        throw unexpected(c, "EOF");
+    }
   }
 
   @Override
   public String getString() {
-    return jsonParser.getString();
+    if (current == Event.KEY_NAME && null != keyTable) {
+      return escaped
+          ? keyTable.intern(builder.toString())
+          : keyTable.intern(buffer, tokenStart, tokenEnd - tokenStart);
+    } else if (current == Event.KEY_NAME || current == Event.VALUE_STRING) {
+      return escaped ? builder.toString() : new String(buffer, tokenStart, tokenEnd - tokenStart);
+    } else if (current == Event.VALUE_NUMBER) {
+      return new String(buffer, tokenStart, tokenEnd - tokenStart);
+    }
+
+    throw new IllegalStateException(
+        String.format("getString() is not supported for parser event {%s}", current));
   }
 
   @Override
   public boolean isIntegralNumber() {
-    return jsonParser.isIntegralNumber();
+    checkNumber();
+    return integral;
+  }
+
+  /**
+   * Check if the current number is integral and always fits in a long.
+   *
+   * @return True if {@link #getLong()} returns the exact value of the number
+   */
+  boolean isLongNumber() {
+    checkNumber();
+    return integral && tokenEnd - tokenStart <= MAX_LONG_DIGITS;
+  }
+
+  /**
+   * Check if the current number round trips through a double i.e. it has at most 15 significant digits and is within
+   * the normal range of a double.
+   *
+   * @return True if {@link #getDouble()} is equal to the decimal value of the number
+   */
+  boolean isDoubleNumber() {
+    checkNumber();
+    scanDouble();
+    return exactDouble;
+  }
+
+  /**
+   * Double value of the current number. Numbers with at most 15 significant digits and a small exponent are converted
+   * straight from the input chars without allocation.
+   *
+   * @return Double value
+   */
+  double getDouble() {
+    checkNumber();
+    scanDouble();
+    return doubleValue;
+  }
+
+  /**
+   * Digits of the current number as an integer, valid when {@link #isDoubleNumber()}. The number is equal to
+   * {@code BigDecimal.valueOf(getUnscaledValue(), getScale())}, with the scale it is written with.
+   */
+  long getUnscaledValue() {
+    checkNumber();
+    scanDouble();
+    return unscaledValue;
+  }
+
+  /**
+   * Scale of the current number as written, valid when {@link #isDoubleNumber()}
+   */
+  int getScale() {
+    checkNumber();
+    scanDouble();
+    return scale;
   }
 
   @Override
   public int getInt() {
-    return jsonParser.getInt();
+    checkNumber();
+    if (integral && tokenEnd - tokenStart <= MAX_LONG_DIGITS) {
+      return (int) parseLong();
+    }
+
+    return getBigDecimal().intValue();
   }
 
   @Override
   public long getLong() {
-    return jsonParser.getLong();
+    checkNumber();
+    if (integral && tokenEnd - tokenStart <= MAX_LONG_DIGITS) {
+      return parseLong();
+    }
+
+    return getBigDecimal().longValue();
   }
 
   @Override
   public BigDecimal getBigDecimal() {
-    return jsonParser.getBigDecimal();
+    checkNumber();
+    return new BigDecimal(buffer, tokenStart, tokenEnd - tokenStart);
   }
 
   @Override
   public JsonLocation getLocation() {
-    return jsonParser.getLocation();
+    long offset = consumed + position;
+    return new Location(line, offset - lineStart + 1, offset);
   }
 
   public void pushBack(Event event) {
-    events.push(event);
+    pushedBack = event;
   }
 
+  /**
+   * Skip over the next value, including any nested values, without materializing it. The value is still fully
+   * tokenized so syntax errors are reported as usual.
+   *
+   * @return Offset of the first char of the skipped value in the buffer. The value ends at {@link #getOffset()}.
+   */
+  int skipValue() {
+    Event event = next();
+    int start = valueStart;
+
+    if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+      int level = depth - 1;
+      while (depth > level) {
+        next();
+      }
+    }
+
+    return start;
+  }
+
+  /**
+   * Offset of the lexer in the buffer. Offsets are only stable for char input which is never refilled.
+   */
+  int getOffset() {
+    return position;
+  }
+
+  /**
+   * Decode the remaining input into a char array.
+   *
+   * @return Remaining input chars
+   */
+  char[] readFully() {
+    tokenStart = position;
+    marked = true;
+    while (fill()) {
+      /* Keep decoding until end of input */
+    }
+    marked = false;
+    return Arrays.copyOfRange(buffer, tokenStart, limit);
+  }
+
+  /**
+   * Release the input. The parser keeps its own buffers and can be reset to new input.
+   */
   @Override
   public void close() {
-    if (null != jsonParser) {
-      jsonParser.close();
+    if (buffer.length <= MAX_RETAINED_SIZE && buffer.length > (null == chars ? 0 : chars.length)
+        && null != bytes) {
+      /* Keep a decode buffer that grew while reading */
+      chars = buffer;
     }
+    open = false;
+    buffer = EMPTY;
+    position = limit = 0;
+    bytes = null;
+    bytePosition = byteLimit = 0;
+    byteSource = null;
+    streamSource = null;
+    state = EXPECT_EOF;
+    pushedBack = null;
   }
 
   /**
-   * Validate a given input string to verify if it is in valid JSON format. The validation is done based on checking of
-   * syntax to ensure that out of order parenthesis and un-balanced parenthesis are caught properly. However, semantic
-   * verification is only done at the time of parsing e.g. ensuring that every key type is represented as a string.
+   * Validate the remaining input to verify that parenthesis are balanced and not out of order. Braces and brackets that
+   * appear inside string literals are ignored. The check works on primitive chars and a scope stack of its own, so it
+   * does not allocate and leaves the parse state untouched. Semantic verification is only done at the time of parsing.
    *
-   * @param input Input
-   * @return True if JSON string is valid, false otherwise
+   * @return True if parenthesis in JSON input are balanced, false otherwise
    */
-  private boolean validate(String input) {
-    Stack<String> stack = new Stack<>();
-    String START_OBJECT = "{", END_OBJECT = "}";
-    String START_ARRAY = "[", END_ARRAY = "]";
+  boolean validate() {
+    boolean string = false;
+    int level = 0;
 
-    for (int i = 0; i < input.length(); i++) {
-      String current = String.valueOf(input.charAt(i));
-      if (current.equals(START_OBJECT) || current.equals(START_ARRAY)) {
-        stack.push(current);
-      } else if (current.equals(END_OBJECT)) {
-        if (stack.size() < 1) {
-          return false;
-        } else if (!stack.peek().equals(START_OBJECT)) {
-          return false;
+    for (int i = position; i < limit; i++) {
+      char c = buffer[i];
+      if (string) {
+        if (c == '\\') {
+          ++i;
+        } else if (c == '"') {
+          string = false;
+        }
+        continue;
+      }
+
+      switch (c) {
+        case '"':
+          string = true;
+          break;
+        case '{':
+        case '[':
+          if (level == validationScopes.length) {
+            boolean[] grown = new boolean[level << 1];
+            System.arraycopy(validationScopes, 0, grown, 0, level);
+            validationScopes = grown;
+          }
+          validationScopes[level++] = c == '{';
+          break;
+        case '}':
+        case ']':
+          if (level == 0 || validationScopes[--level] != (c == '}')) {
+            return false;
+          }
+          break;
+        default:
+          break;
+      }
+    }
+
+    return level == 0 && !string;
+  }
+
+  private Event readValue(int c) {
+    valueStart = position - 1;
+    switch (c) {
+      case '{':
+        pushScope(true);
+        state = EXPECT_KEY_OR_END_OBJECT;
+        return Event.START_OBJECT;
+      case '[':
+        pushScope(false);
+        state = EXPECT_VALUE_OR_END_ARRAY;
+        return Event.START_ARRAY;
+      case '"':
+        readString();
+        endValue();
+        return Event.VALUE_STRING;
+      case 't':
+        readLiteral("true");
+        endValue();
+        return Event.VALUE_TRUE;
+      case 'f':
+        readLiteral("false");
+        endValue();
+        return Event.VALUE_FALSE;
+      case 'n':
+        readLiteral("null");
+        endValue();
+        return Event.VALUE_NULL;
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        readNumber(c);
+        endValue();
+        return Event.VALUE_NUMBER;
+      default:
+        throw unexpected(c, "a JSON value");
+    }
+  }
+
+  private Event readKey(int c) {
+    if (c != '"') {
+      throw unexpected(c, "a key name");
+    }
+
+    readString();
+    state = EXPECT_COLON;
+    return Event.KEY_NAME;
+  }
+
+  private Event endScope(boolean object) {
+    --depth;
+    endValue();
+    return object ? Event.END_OBJECT : Event.END_ARRAY;
+  }
+
+  private void endValue() {
+    state = depth == 0 ? EXPECT_EOF : EXPECT_COMMA_OR_END;
+  }
+
+  private void pushScope(boolean object) {
+    if (depth == scopes.length) {
+      boolean[] grown = new boolean[depth << 1];
+      System.arraycopy(scopes, 0, grown, 0, depth);
+      scopes = grown;
+    }
+    scopes[depth++] = object;
+  }
+
+  private void readString() {
+    escaped = false;
+    tokenStart = position;
+    marked = true;
+
+    while (position < limit || fill()) {
+      char c = buffer[position++];
+      if (c == '"') {
+        tokenEnd = position - 1;
+        return;
+      } else if (c == '\\') {
+        builder.setLength(0);
+        builder.append(buffer, tokenStart, position - 1 - tokenStart);
+        escaped = true;
+        readEscapedString();
+        return;
+      } else if (c < 0x20) {
+        throw unexpected(c, "a valid string character");
+      }
+    }
+
+    throw unexpected(-1, "'\"'");
+  }
+
+  private void readEscapedString() {
+    /* The opening backslash has already been consumed */
+    builder.append(readEscape());
+
+    while (position < limit || fill()) {
+      char c = buffer[position++];
+      if (c == '"') {
+        return;
+      } else if (c == '\\') {
+        builder.append(readEscape());
+      } else if (c < 0x20) {
+        throw unexpected(c, "a valid string character");
+      } else {
+        builder.append(c);
+      }
+    }
+
+    throw unexpected(-1, "'\"'");
+  }
+
+  private char readEscape() {
+    int c = read();
+    switch (c) {
+      case '"':
+      case '\\':
+      case '/':
+        return (char) c;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        int code = 0;
+        for (int i = 0; i < 4; i++) {
+          int h = read();
+          int digit = Character.digit(h, 16);
+          if (h < 0 || digit < 0) {
+            throw unexpected(h, "a hex digit");
+          }
+          code = (code << 4) | digit;
+        }
+        return (char) code;
+      default:
+        throw unexpected(c, "a valid escape character");
+    }
+  }
+
+  private void readLiteral(String literal) {
+    /* The first character has already been consumed */
+    for (int i = 1; i < literal.length(); i++) {
+      int c = read();
+      if (c != literal.charAt(i)) {
+        throw unexpected(c, String.format("literal '%s'", literal));
+      }
+    }
+  }
+
+  private void readNumber(int c) {
+    tokenStart = position - 1;
+    marked = true;
+    integral = true;
+    scanned = false;
+
+    if (c == '-') {
+      c = read();
+    }
+
+    if (c == '0') {
+      c = read();
+    } else if (isDigit(c)) {
+      c = readDigits();
+    } else {
+      throw unexpected(c, "a digit");
+    }
+
+    if (c == '.') {
+      integral = false;
+      c = read();
+      if (!isDigit(c)) {
+        throw unexpected(c, "a digit");
+      }
+      c = readDigits();
+    }
+
+    if (c == 'e' || c == 'E') {
+      integral = false;
+      c = read();
+      if (c == '+' || c == '-') {
+        c = read();
+      }
+      if (!isDigit(c)) {
+        throw unexpected(c, "a digit");
+      }
+      c = readDigits();
+    }
+
+    /* Un-read the character following the number */
+    if (c >= 0) {
+      --position;
+    }
+    tokenEnd = position;
+  }
+
+  private int readDigits() {
+    int c;
+    do {
+      c = read();
+    } while (isDigit(c));
+    return c;
+  }
+
+  private long parseLong() {
+    int i = tokenStart;
+    boolean negative = buffer[i] == '-';
+    if (negative) {
+      ++i;
+    }
+
+    long result = 0;
+    for (; i < tokenEnd; i++) {
+      result = result * 10 + (buffer[i] - '0');
+    }
+    return negative ? -result : result;
+  }
+
+  private void scanDouble() {
+    if (scanned) {
+      return;
+    }
+    scanned = true;
+
+    int i = tokenStart;
+    boolean negative = buffer[i] == '-';
+    if (negative) {
+      ++i;
+    }
+
+    /* Mantissa without leading zeros and the power of ten it is scaled by */
+    long mantissa = 0;
+    int digits = 0;
+    int exponent = 0;
+    boolean fraction = false;
+    for (; i < tokenEnd; i++) {
+      char c = buffer[i];
+      if (c == '.') {
+        fraction = true;
+        continue;
+      } else if (c == 'e' || c == 'E') {
+        break;
+      }
+
+      if (fraction) {
+        --exponent;
+      }
+      if (mantissa == 0 && c == '0') {
+        continue;
+      }
+      if (++digits > MAX_DOUBLE_DIGITS) {
+        exactDouble = false;
+        doubleValue = Double.parseDouble(new String(buffer, tokenStart, tokenEnd - tokenStart));
+        return;
+      }
+      mantissa = mantissa * 10 + (c - '0');
+    }
+
+    if (i < tokenEnd) {
+      boolean negativeExponent = buffer[++i] == '-';
+      if (buffer[i] == '-' || buffer[i] == '+') {
+        ++i;
+      }
+
+      int value = 0;
+      for (; i < tokenEnd && value < 100_000; i++) {
+        value = value * 10 + (buffer[i] - '0');
+      }
+      exponent += negativeExponent ? -value : value;
+    }
+
+    unscaledValue = negative ? -mantissa : mantissa;
+    scale = -exponent;
+
+    double result;
+    if (mantissa == 0) {
+      result = 0;
+      exactDouble = true;
+    } else if (exponent >= -22 && exponent <= 22) {
+      /* Both operands are exact so the result is correctly rounded */
+      result = exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+      exactDouble = true;
+    } else {
+      result = Double.parseDouble(new String(buffer, tokenStart, tokenEnd - tokenStart));
+      exactDouble = !Double.isInfinite(result) && Math.abs(result) >= Double.MIN_NORMAL;
+      result = Math.abs(result);
+    }
+
+    doubleValue = negative ? -result : result;
+  }
+
+  private void checkNumber() {
+    if (current != Event.VALUE_NUMBER) {
+      throw new IllegalStateException(
+          String.format("Number value is not available for parser event {%s}", current));
+    }
+  }
+
+  private int read() {
+    return position < limit || fill() ? buffer[position++] : -1;
+  }
+
+  private int skipWhitespace() {
+    while (position < limit || fill()) {
+      char c = buffer[position++];
+      switch (c) {
+        case ' ':
+        case '\t':
+        case '\r':
+          break;
+        case '\n':
+          ++line;
+          lineStart = consumed + position;
+          break;
+        default:
+          return c;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Decode more UTF-8 input into buffer. Chars already consumed are discarded unless they belong to the token being
+   * read, in which case they are moved to the start of buffer (growing it if needed).
+   *
+   * @return True if at least one more char is available, false at end of input
+   */
+  private boolean fill() {
+    if (null == bytes) {
+      return false;
+    }
+
+    int keep = marked ? tokenStart : position;
+    if (keep > 0) {
+      System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+      consumed += keep;
+      tokenStart -= marked ? keep : 0;
+      position -= keep;
+      limit -= keep;
+    }
+
+    if (buffer.length - limit < 2) {
+      char[] grown = new char[Math.max(buffer.length << 1, 16)];
+      System.arraycopy(buffer, 0, grown, 0, limit);
+      buffer = grown;
+    }
+
+    int count = decode(buffer, limit, buffer.length - limit);
+    limit += count;
+    return count > 0;
+  }
+
+  /**
+   * Decode UTF-8 bytes into chars. At least two chars of space are needed so that a supplementary code point can be
+   * written as a surrogate pair.
+   *
+   * @return Number of chars written, zero at end of input
+   */
+  private int decode(char[] dst, int offset, int length) {
+    int n = offset;
+    int end = offset + length - 1;
+
+    while (n < end) {
+      if (bytePosition == byteLimit && !readBytes(1)) {
+        break;
+      }
+
+      /* Fast path for ASCII */
+      int b = bytes[bytePosition];
+      while (b >= 0) {
+        dst[n++] = (char) b;
+        if (++bytePosition == byteLimit || n == end) {
+          break;
+        }
+        b = bytes[bytePosition];
+      }
+      if (b >= 0) {
+        continue;
+      }
+
+      int count, code;
+      if ((b & 0xE0) == 0xC0) {
+        count = 2;
+        code = b & 0x1F;
+      } else if ((b & 0xF0) == 0xE0) {
+        count = 3;
+        code = b & 0x0F;
+      } else if ((b & 0xF8) == 0xF0) {
+        count = 4;
+        code = b & 0x07;
+      } else {
+        throw malformed();
+      }
+
+      if (byteLimit - bytePosition < count && !readBytes(count)) {
+        throw malformed();
+      }
+
+      for (int i = 1; i < count; i++) {
+        int next = bytes[bytePosition + i];
+        if ((next & 0xC0) != 0x80) {
+          throw malformed();
+        }
+        code = (code << 6) | (next & 0x3F);
+      }
+      bytePosition += count;
+
+      if (code >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+        dst[n++] = Character.highSurrogate(code);
+        dst[n++] = Character.lowSurrogate(code);
+      } else {
+        dst[n++] = (char) code;
+      }
+    }
+
+    return n - offset;
+  }
+
+  /**
+   * Refill the byte window from a direct byte buffer or an input stream.
+   *
+   * @param count Number of undecoded bytes required
+   * @return True if at least count bytes are available to decode
+   */
+  private boolean readBytes(int count) {
+    if (null == byteSource && null == streamSource) {
+      return false;
+    }
+
+    int remaining = byteLimit - bytePosition;
+    System.arraycopy(bytes, bytePosition, bytes, 0, remaining);
+    bytePosition = 0;
+    byteLimit = remaining;
+
+    try {
+      while (byteLimit < count) {
+        int read;
+        if (null != byteSource) {
+          read = Math.min(byteSource.remaining(), bytes.length - byteLimit);
+          byteSource.get(bytes, byteLimit, read);
         } else {
-          stack.push(current);
-          stack.pop();
-          stack.pop();
+          read = streamSource.read(bytes, byteLimit, bytes.length - byteLimit);
         }
-      } else if (current.equals(END_ARRAY)) {
-        if (stack.size() < 1) {
-          return false;
-        } else if (!stack.peek().equals(START_ARRAY)) {
+
+        if (read <= 0) {
           return false;
-        } else {
-          stack.push(current);
-          stack.pop();
-          stack.pop();
         }
+        byteLimit += read;
+      }
+    } catch (IOException e) {
+      throw new JsonException("I/O error while reading JSON input", e);
+    }
+
+    return true;
+  }
+
+  private void skipByteOrderMark() {
+    if (byteLimit - bytePosition >= 3 || readBytes(3)) {
+      if (bytes[bytePosition] == (byte) 0xEF
+          && bytes[bytePosition + 1] == (byte) 0xBB
+          && bytes[bytePosition + 2] == (byte) 0xBF) {
+        bytePosition += 3;
       }
     }
+  }
+
+  private JsonParsingException malformed() {
+    JsonLocation location = getLocation();
+    return new JsonParsingException(
+        String.format("Malformed UTF-8 input at %s", location), location);
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private JsonParsingException unexpected(int c, String expected) {
+    JsonLocation location = getLocation();
+    String found = c < 0 ? "EOF" : String.format("'%s'", (char) c);
+    return new JsonParsingException(
+        String.format("Unexpected %s at %s, expected %s", found, location, expected), location);
+  }
+
+  private static final class Location implements JsonLocation {
+
+    private final long line;
+    private final long column;
+    private final long offset;
+
+    Location(long line, long column, long offset) {
+      this.line = line;
+      this.column = column;
+      this.offset = offset;
+    }
+
+    @Override
+    public long getLineNumber() {
+      return line;
+    }
+
+    @Override
+    public long getColumnNumber() {
+      return column;
+    }
 
-    return stack.isEmpty();
+    @Override
+    public long getStreamOffset() {
+      return offset;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("(line no=%d, column no=%d, offset=%d)", line, column, offset);
+    }
   }
 }
@@ -28,16 +28,12 @@ public class JsonArray extends JsonType<JsonArray> implements javax.json.JsonArr
 
   @Override
   public JsonObject getJsonObject(int i) {
-    com.crimson.types.JsonObject object = com.crimson.types.JsonObject.newInstance();
-    object.cast(list.get(i));
-    return object;
+    return (JsonObject) list.get(i);
   }
 
   @Override
   public javax.json.JsonArray getJsonArray(int i) {
-    JsonArray array = JsonArray.newInstance();
-    array.cast(list.get(i));
-    return array;
+    return (javax.json.JsonArray) list.get(i);
   }
 
   @Override
@@ -56,19 +52,7 @@ public class JsonArray extends JsonType<JsonArray> implements javax.json.JsonArr
 
   @Override
   public <T extends JsonValue> List<T> getValuesAs(Class<T> aClass) {
-    List<T> newlist = new ArrayList<>();
-    newlist =
-        list.stream()
-            .map(
-                e -> {
-                  T val = null;
-                  JsonType<?> jsonType = (JsonType<?>) e;
-                  val = (T) jsonType.cast(e.toString());
-                  return val;
-                })
-            .collect(Collectors.toList());
-
-    return newlist;
+    return list.stream().map(aClass::cast).collect(Collectors.toList());
   }
 
   @Override
@@ -98,9 +82,7 @@ public class JsonArray extends JsonType<JsonArray> implements javax.json.JsonArr
 
   @Override
   public boolean getBoolean(int i) {
-    com.crimson.types.JsonBoolean jsonBoolean = com.crimson.types.JsonBoolean.newInstance();
-    jsonBoolean.cast(list.get(i));
-    return jsonBoolean.booleanValue;
+    return com.crimson.types.JsonBoolean.toBoolean(list.get(i));
   }
 
   @Override
@@ -294,9 +276,10 @@ public class JsonArray extends JsonType<JsonArray> implements javax.json.JsonArr
       return this;
     }
 
+    boolean owner = null == parser;
     try {
-      if (null == parser) {
-        parser = JParser.newInstance(value.toString());
+      if (owner) {
+        parser = JParser.forThread(value);
       }
 
       Event event = parser.next();
@@ -345,20 +328,19 @@ public class JsonArray extends JsonType<JsonArray> implements javax.json.JsonArr
             list.add(val);
             break;
           case VALUE_NUMBER:
-            data = parser.getBigDecimal();
-            val = com.crimson.types.JsonNumber.newInstance().cast(data);
+            val = com.crimson.types.JsonNumber.newInstance().cast(parser);
             list.add(val);
             break;
           case VALUE_TRUE:
-            val = com.crimson.types.JsonBoolean.newInstance().cast(JsonValue.TRUE);
+            val = com.crimson.types.JsonBoolean.getInstance(true);
             list.add(val);
             break;
           case VALUE_FALSE:
-            val = com.crimson.types.JsonBoolean.newInstance().cast(JsonValue.FALSE);
+            val = com.crimson.types.JsonBoolean.getInstance(false);
             list.add(val);
             break;
           case VALUE_NULL:
-            val = com.crimson.types.JsonNull.newInstance().cast(JsonValue.NULL);
+            val = com.crimson.types.JsonNull.getInstance();
             list.add(val);
             break;
           default:
@@ -370,13 +352,19 @@ public class JsonArray extends JsonType<JsonArray> implements javax.json.JsonArr
       /* Close parser if no more tokens are left to parse */
       if (!parser.hasNext()) {
         parser.close();
-        parser = null;
       }
 
       super.value = this;
     } catch (Exception e) {
       throw new UnCastableObjectToInstanceTypeException(
           String.format("Exception creating JsonArray from input string {%s}: {%s}", value, e));
+    } finally {
+      /* The parser is only held while casting. A parser of the thread is closed even if parsing failed so that it
+       * can be reused. */
+      if (owner && null != parser) {
+        parser.close();
+      }
+      parser = null;
     }
 
     return this;
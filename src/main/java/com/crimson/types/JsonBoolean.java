@@ -6,16 +6,39 @@ public class JsonBoolean extends JsonType<JsonBoolean> implements JsonValue {
 
   static final JsonValue TRUE_VALUE = JsonValue.TRUE;
   static final JsonValue FALSE_VALUE = JsonValue.FALSE;
+  private static final JsonBoolean TRUE_INSTANCE = new JsonBoolean(Boolean.TRUE);
+  private static final JsonBoolean FALSE_INSTANCE = new JsonBoolean(Boolean.FALSE);
+
   Boolean booleanValue;
+  private final boolean immutable;
 
   private JsonBoolean() {
     this.booleanValue = null;
+    this.immutable = false;
+  }
+
+  private JsonBoolean(Boolean booleanValue) {
+    this.booleanValue = booleanValue;
+    this.immutable = true;
+    super.value = this;
   }
 
   public static final JsonBoolean newInstance() {
     return new JsonBoolean();
   }
 
+  /**
+   * Shared immutable instance of a boolean value, casting it to the other value fails
+   */
+  public static JsonBoolean getInstance(boolean value) {
+    return value ? TRUE_INSTANCE : FALSE_INSTANCE;
+  }
+
+  @Override
+  public boolean isImmutable() {
+    return immutable;
+  }
+
   public boolean getBoolean() {
     return booleanValue;
   }
@@ -72,24 +95,43 @@ public class JsonBoolean extends JsonType<JsonBoolean> implements JsonValue {
 
   @Override
   public JsonBoolean cast(Object value) {
-    if (null == value) {
-      throw new IllegalArgumentException("Can't construct valid JsonBoolean from null object");
+    Boolean parsed = Boolean.valueOf(toBoolean(value));
+    if (immutable) {
+      if (parsed != booleanValue) {
+        throw new IllegalStateException(
+            String.format("Can't change value of shared JsonBoolean {%s}", booleanValue));
+      }
+      return this;
     }
 
-    if (value.equals(TRUE_VALUE)) {
-      booleanValue = Boolean.TRUE;
-    } else if (value.equals(FALSE_VALUE)) {
-      booleanValue = Boolean.FALSE;
+    booleanValue = parsed;
+    super.value = this;
+    return this;
+  }
+
+  /**
+   * Boolean value of JSON boolean values, booleans and JsonBoolean types, otherwise of the string form of the input
+   */
+  static boolean toBoolean(Object value) {
+    if (null == value) {
+      throw new IllegalArgumentException("Can't construct valid JsonBoolean from null object");
     }
 
-    try {
-      booleanValue = Boolean.parseBoolean(String.valueOf(value));
-      super.value = this;
-    } catch (Exception e) {
-      throw new UnCastableObjectToInstanceTypeException(
-          String.format("Unable to get valid boolean value from input"));
+    if (value instanceof JsonBoolean) {
+      Boolean booleanValue = ((JsonBoolean) value).booleanValue;
+      if (null == booleanValue) {
+        throw new UnCastableObjectToInstanceTypeException(
+            String.format("Unable to get valid boolean value from uninitialized JsonBoolean"));
+      }
+      return booleanValue;
+    } else if (value instanceof Boolean) {
+      return (Boolean) value;
+    } else if (TRUE_VALUE.equals(value)) {
+      return true;
+    } else if (FALSE_VALUE.equals(value)) {
+      return false;
     }
 
-    return this;
+    return Boolean.parseBoolean(String.valueOf(value));
   }
 }
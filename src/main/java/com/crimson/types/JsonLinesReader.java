@@ -0,0 +1,252 @@
+package com.crimson.types;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.json.JsonException;
+
+/**
+ * Reads newline delimited JSON (one object per line) from a file, stream or channel. Records are parsed one at a time
+ * straight out of a bounded UTF-8 byte buffer, so memory use depends on the longest line and not on the size of the
+ * input. Blank lines are skipped. A reader is not thread-safe; use {@link #stream()} to feed records into a stream
+ * pipeline.
+ */
+public class JsonLinesReader implements Iterator<JsonObject>, Closeable {
+
+  /**
+   * Initial size of the read buffer (64 KB)
+   */
+  private static final int BUFFER_SIZE = 65_536;
+
+  /**
+   * Default limit on the length of a single line (64 MB)
+   */
+  private static final int MAX_LINE_LENGTH = 67_108_864;
+
+  private final ReadableByteChannel channel;
+  private final int maxLineLength;
+
+  /**
+   * Largest size of the read buffer, a line of the maximum length plus its terminator
+   */
+  private final int maxBufferLength;
+
+  /**
+   * Read buffer. Bytes in [position, limit) are not consumed yet, bytes in [position, scanned) hold no line terminator.
+   */
+  private byte[] buffer;
+  private int position = 0;
+  private int limit = 0;
+  private int scanned = 0;
+  private boolean eof = false;
+
+  /**
+   * Record read ahead by hasNext()
+   */
+  private JsonObject next;
+  private long line = 0;
+
+  /**
+   * Parser reset to every line. Keys repeated across records share String instances through its key table.
+   */
+  private final JParser parser = JParser.newInstance().setKeyTable(KeyTable.newInstance());
+
+  private JsonLinesReader(ReadableByteChannel channel, int maxLineLength) {
+    if (maxLineLength <= 0) {
+      throw new IllegalArgumentException(
+          String.format("Maximum line length must be positive, found {%d}", maxLineLength));
+    }
+
+    this.channel = Objects.requireNonNull(channel);
+    this.maxLineLength = maxLineLength;
+    this.maxBufferLength = maxLineLength == Integer.MAX_VALUE ? maxLineLength : maxLineLength + 1;
+    this.buffer = new byte[Math.min(BUFFER_SIZE, maxBufferLength)];
+  }
+
+  public static JsonLinesReader newInstance(Path path) throws IOException {
+    return newInstance(FileChannel.open(path, StandardOpenOption.READ));
+  }
+
+  public static JsonLinesReader newInstance(InputStream input) {
+    return newInstance(Channels.newChannel(input));
+  }
+
+  public static JsonLinesReader newInstance(ReadableByteChannel channel) {
+    return new JsonLinesReader(channel, MAX_LINE_LENGTH);
+  }
+
+  /**
+   * Create a reader with a custom limit on the length of a line. Reading a longer line fails with a JsonException.
+   *
+   * @param channel       Input channel
+   * @param maxLineLength Maximum number of bytes in a line, not counting its terminator
+   * @return JsonLinesReader
+   */
+  public static JsonLinesReader newInstance(ReadableByteChannel channel, int maxLineLength) {
+    return new JsonLinesReader(channel, maxLineLength);
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (null == next) {
+      next = read();
+    }
+    return null != next;
+  }
+
+  @Override
+  public JsonObject next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    JsonObject object = next;
+    next = null;
+    return object;
+  }
+
+  /**
+   * Number of the last line read, starting at one
+   */
+  public long getLineNumber() {
+    return line;
+  }
+
+  public Spliterator<JsonObject> spliterator() {
+    return Spliterators.spliteratorUnknownSize(
+        this, Spliterator.ORDERED | Spliterator.NONNULL);
+  }
+
+  /**
+   * Sequential stream of records. Closing the stream closes the reader.
+   */
+  public Stream<JsonObject> stream() {
+    return StreamSupport.stream(spliterator(), false)
+        .onClose(
+            () -> {
+              try {
+                close();
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+  }
+
+  @Override
+  public void close() throws IOException {
+    buffer = null;
+    next = null;
+    eof = true;
+    channel.close();
+  }
+
+  private JsonObject read() {
+    if (null == buffer) {
+      return null;
+    }
+
+    while (true) {
+      int end = -1;
+      for (int i = scanned; i < limit; i++) {
+        if (buffer[i] == '\n') {
+          end = i;
+          break;
+        }
+      }
+
+      int start = position;
+      if (end >= 0) {
+        position = scanned = end + 1;
+      } else if (eof) {
+        if (position == limit) {
+          return null;
+        }
+        end = position = scanned = limit;
+      } else {
+        scanned = limit;
+        fill();
+        continue;
+      }
+
+      line++;
+      /* Trim whitespace (and the CR of CRLF terminators) around the record */
+      while (start < end && isWhitespace(buffer[start])) {
+        start++;
+      }
+      while (end > start && isWhitespace(buffer[end - 1])) {
+        end--;
+      }
+      if (start < end) {
+        return parse(start, end);
+      }
+    }
+  }
+
+  private JsonObject parse(int start, int end) {
+    parser.reset(buffer, start, end - start);
+    try {
+      return JsonObject.newInstance().cast(parser, parser);
+    } catch (RuntimeException e) {
+      throw new JsonException(
+          String.format(
+              "Invalid JSON record at line %d {%s}",
+              line, new String(buffer, start, end - start, StandardCharsets.UTF_8)),
+          e);
+    }
+  }
+
+  /**
+   * Move the unconsumed bytes to the front of the buffer, grow it if it is full and read more input
+   */
+  private void fill() {
+    int remaining = limit - position;
+    if (position > 0) {
+      System.arraycopy(buffer, position, buffer, 0, remaining);
+      scanned -= position;
+      position = 0;
+      limit = remaining;
+    }
+
+    if (limit == buffer.length) {
+      if (buffer.length >= maxBufferLength) {
+        throw new JsonException(
+            String.format(
+                "Line %d is longer than the maximum line length of %d bytes",
+                line + 1, maxLineLength));
+      }
+      byte[] grown = new byte[(int) Math.min((long) buffer.length << 1, maxBufferLength)];
+      System.arraycopy(buffer, 0, grown, 0, limit);
+      buffer = grown;
+    }
+
+    try {
+      int count = channel.read(ByteBuffer.wrap(buffer, limit, buffer.length - limit));
+      if (count < 0) {
+        eof = true;
+      } else {
+        limit += count;
+      }
+    } catch (IOException e) {
+      throw new JsonException("Error reading JSON lines input", e);
+    }
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r' || b == '\n';
+  }
+}
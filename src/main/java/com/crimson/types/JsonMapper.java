@@ -1,6 +1,5 @@
 package com.crimson.types;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -51,7 +50,7 @@ public class JsonMapper {
         } else if (jsonType instanceof JsonBoolean) {
           return Boolean.valueOf(((JsonBoolean) jsonType).booleanValue);
         } else if (jsonType instanceof JsonNumber) {
-          return BigDecimal.valueOf(((JsonNumber) jsonType).number.doubleValue());
+          return ((JsonNumber) jsonType).bigDecimalValue();
         } else if (jsonType instanceof JsonString) {
           return ((JsonString) jsonType).string;
         }
@@ -6,12 +6,35 @@ public class JsonNull extends JsonType<JsonNull> implements JsonValue {
 
   static final JsonValue NULL_VALUE = JsonValue.NULL;
 
-  private JsonNull() {}
+  private static final JsonNull INSTANCE = new JsonNull(true);
+
+  private final boolean immutable;
+
+  private JsonNull() {
+    this.immutable = false;
+  }
+
+  private JsonNull(boolean immutable) {
+    this.immutable = immutable;
+    super.value = this;
+  }
 
   public static final JsonNull newInstance() {
     return new JsonNull();
   }
 
+  /**
+   * Shared immutable instance
+   */
+  public static JsonNull getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public boolean isImmutable() {
+    return immutable;
+  }
+
   @Override
   public ValueType getValueType() {
     return ValueType.NULL;
@@ -5,6 +5,35 @@ import java.math.BigInteger;
 
 public class JsonNumber extends JsonType<JsonNumber> implements javax.json.JsonNumber {
 
+  /**
+   * Internal representation of a number. Integral values are kept as a long, other values as a double when their
+   * decimal form round trips through a double and as a BigDecimal otherwise.
+   */
+  private static final int LONG = 0;
+  private static final int DOUBLE = 1;
+  private static final int DECIMAL = 2;
+
+  private int kind = DECIMAL;
+
+  /**
+   * Digits and scale of a parsed double as written, so that its decimal value keeps the scale of the input. Doubles
+   * cast from Java values have no written form and use the scale of their canonical string.
+   */
+  private static final int UNKNOWN_SCALE = Integer.MIN_VALUE;
+  private long unscaledValue;
+  private int scale = UNKNOWN_SCALE;
+
+  /**
+   * Doubles of at least this magnitude don't fit a long, their integral conversions go through BigDecimal
+   */
+  private static final double LONG_RANGE = 0x1p63;
+
+  private long longValue;
+  private double doubleValue;
+
+  /**
+   * Decimal value. Created on demand for long and double numbers.
+   */
   BigDecimal number;
 
   private JsonNumber() {}
@@ -13,48 +42,90 @@ public class JsonNumber extends JsonType<JsonNumber> implements javax.json.JsonN
     return new JsonNumber();
   }
 
+  /**
+   * Whether the scale of the decimal value is zero, as defined by javax.json. A parsed number is integral when it is
+   * written without a fraction or exponent, so {@code 1.0} and {@code 1e2} aren't.
+   */
   @Override
   public boolean isIntegral() {
-    return number.scale() <= 0;
+    switch (kind) {
+      case LONG:
+        return true;
+      case DOUBLE:
+        return scale != UNKNOWN_SCALE ? scale == 0 : bigDecimalValue().scale() == 0;
+      default:
+        return number.scale() == 0;
+    }
   }
 
   @Override
   public int intValue() {
-    return number.intValue();
+    switch (kind) {
+      case LONG:
+        return (int) longValue;
+      case DOUBLE:
+        /* Out of range values keep their low order bits like BigDecimal.intValue() rather than saturating */
+        return Math.abs(doubleValue) < LONG_RANGE ? (int) (long) doubleValue : bigDecimalValue().intValue();
+      default:
+        return number.intValue();
+    }
   }
 
   @Override
   public int intValueExact() {
-    return number.intValueExact();
+    return kind == LONG ? Math.toIntExact(longValue) : bigDecimalValue().intValueExact();
   }
 
   @Override
   public long longValue() {
-    return number.longValue();
+    switch (kind) {
+      case LONG:
+        return longValue;
+      case DOUBLE:
+        return Math.abs(doubleValue) < LONG_RANGE ? (long) doubleValue : bigDecimalValue().longValue();
+      default:
+        return number.longValue();
+    }
   }
 
   @Override
   public long longValueExact() {
-    return number.longValueExact();
+    return kind == LONG ? longValue : bigDecimalValue().longValueExact();
   }
 
   @Override
   public BigInteger bigIntegerValue() {
-    return number.toBigInteger();
+    return kind == LONG ? BigInteger.valueOf(longValue) : bigDecimalValue().toBigInteger();
   }
 
   @Override
   public BigInteger bigIntegerValueExact() {
-    return number.toBigIntegerExact();
+    return kind == LONG ? BigInteger.valueOf(longValue) : bigDecimalValue().toBigIntegerExact();
   }
 
   @Override
   public double doubleValue() {
-    return number.doubleValue();
+    switch (kind) {
+      case LONG:
+        return longValue;
+      case DOUBLE:
+        return doubleValue;
+      default:
+        return number.doubleValue();
+    }
   }
 
   @Override
   public BigDecimal bigDecimalValue() {
+    if (null == number) {
+      if (kind == LONG) {
+        number = BigDecimal.valueOf(longValue);
+      } else if (scale != UNKNOWN_SCALE) {
+        number = BigDecimal.valueOf(unscaledValue, scale);
+      } else {
+        number = BigDecimal.valueOf(doubleValue);
+      }
+    }
     return number;
   }
 
@@ -65,7 +136,36 @@ public class JsonNumber extends JsonType<JsonNumber> implements javax.json.JsonN
 
   @Override
   public String toString() {
-    return BigDecimal.valueOf(doubleValue()).toEngineeringString();
+    switch (kind) {
+      case LONG:
+        return Long.toString(longValue);
+      case DOUBLE:
+        return Double.toString(doubleValue);
+      default:
+        return number.toString();
+    }
+  }
+
+  /**
+   * Cast the current number token of a parser. The tokenizer produces long and double values directly, a BigDecimal
+   * is only created when the number doesn't fit either of them without loss.
+   *
+   * @param parser Parser positioned at a VALUE_NUMBER event
+   * @return JsonNumber
+   */
+  JsonNumber cast(JParser parser) {
+    if (parser.isLongNumber()) {
+      setLong(parser.getLong());
+    } else if (parser.isDoubleNumber()) {
+      setDouble(parser.getDouble());
+      unscaledValue = parser.getUnscaledValue();
+      scale = parser.getScale();
+    } else {
+      setDecimal(parser.getBigDecimal());
+    }
+
+    super.value = this;
+    return this;
   }
 
   @Override
@@ -74,8 +174,30 @@ public class JsonNumber extends JsonType<JsonNumber> implements javax.json.JsonN
       throw new IllegalArgumentException("Can't construct valid JsonNumber from null object");
     }
 
+    if (value instanceof JsonNumber) {
+      JsonNumber that = (JsonNumber) value;
+      this.kind = that.kind;
+      this.longValue = that.longValue;
+      this.doubleValue = that.doubleValue;
+      this.unscaledValue = that.unscaledValue;
+      this.scale = that.scale;
+      this.number = that.number;
+      super.value = this;
+      return this;
+    } else if (value instanceof Long || value instanceof Integer
+        || value instanceof Short || value instanceof Byte) {
+      setLong(((Number) value).longValue());
+      super.value = this;
+      return this;
+    } else if ((value instanceof Double || value instanceof Float)
+        && Double.isFinite(((Number) value).doubleValue())) {
+      setDouble(((Number) value).doubleValue());
+      super.value = this;
+      return this;
+    }
+
     try {
-      this.number = new BigDecimal(value.toString());
+      setDecimal(new BigDecimal(value.toString()));
       super.value = this;
     } catch (NumberFormatException e) {
     }
@@ -87,4 +209,36 @@ public class JsonNumber extends JsonType<JsonNumber> implements javax.json.JsonN
     throw new UnCastableObjectToInstanceTypeException(
         String.format("Can't find a decimal type for value = {%s}", value));
   }
+
+  /**
+   * Whether the number is held as a long, in which case {@link #longValue()} is exact
+   */
+  public boolean isLong() {
+    return kind == LONG;
+  }
+
+  /**
+   * Whether the number is held as a double, in which case {@link #doubleValue()} is exact
+   */
+  public boolean isDouble() {
+    return kind == DOUBLE;
+  }
+
+  private void setLong(long value) {
+    kind = LONG;
+    longValue = value;
+    number = null;
+  }
+
+  private void setDouble(double value) {
+    kind = DOUBLE;
+    doubleValue = value;
+    scale = UNKNOWN_SCALE;
+    number = null;
+  }
+
+  private void setDecimal(BigDecimal value) {
+    kind = DECIMAL;
+    number = value;
+  }
 }
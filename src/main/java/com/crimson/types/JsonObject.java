@@ -4,7 +4,6 @@ import com.crimson.annotations.ValueType;
 import com.google.common.collect.ImmutableSet;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -21,47 +20,65 @@ import org.apache.commons.lang3.StringUtils;
 public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonObject {
 
   JParser parser;
-  Map<? super String, ? super JsonValue> map = new LinkedHashMap<>();
+  Map<? super String, ? super JsonValue> map = new CompactMap<>();
 
-  private JsonObject() {}
+  /**
+   * A lazy instance keeps its source chars and maps every key to the range of its value in source. Values are
+   * materialized the first time they are read.
+   */
+  private final boolean lazy;
+  private char[] source;
+
+  private JsonObject() {
+    this(false);
+  }
+
+  private JsonObject(boolean lazy) {
+    this.lazy = lazy;
+  }
 
   public static final JsonObject newInstance() {
     return new JsonObject();
   }
 
+  /**
+   * Create a lazy JsonObject. Casting input to a lazy instance only indexes the keys of the object, each value is
+   * materialized the first time it is read. Nested objects are lazy as well. Since reads update internal state a lazy
+   * instance must not be shared across threads without external synchronization.
+   *
+   * @return Lazy JsonObject
+   */
+  public static final JsonObject newLazyInstance() {
+    return new JsonObject(true);
+  }
+
   @Override
   public JsonArray getJsonArray(String s) {
-    com.crimson.types.JsonArray array = com.crimson.types.JsonArray.newInstance();
-    JsonType<?> valueType = (JsonType<?>) map.get(s);
-    array.cast(valueType.toString());
-    return array;
+    return (JsonArray) resolve(s);
   }
 
   @Override
   public javax.json.JsonObject getJsonObject(String s) {
-    JsonObject object = JsonObject.newInstance();
-    JsonType<?> valueType = (JsonType<?>) map.get(s);
-    object.cast(valueType.toString());
-    return object;
+    return (javax.json.JsonObject) resolve(s);
   }
 
   @Override
   public JsonNumber getJsonNumber(String s) {
     com.crimson.types.JsonNumber number = com.crimson.types.JsonNumber.newInstance();
-    number.cast(map.get(s));
+    number.cast(resolve(s));
     return number;
   }
 
   @Override
   public JsonString getJsonString(String s) {
     com.crimson.types.JsonString string = com.crimson.types.JsonString.newInstance();
-    string.cast(map.get(s));
+    string.cast(resolve(s));
     return string;
   }
 
   @Override
   public String getString(String s) {
-    JsonType<?> valueType = (JsonType<?>) map.get(s);
+    JsonType<?> valueType = (JsonType<?>) resolve(s);
     return valueType.valueOf().toString();
   }
 
@@ -74,7 +91,7 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
   @Override
   public int getInt(String s) {
     com.crimson.types.JsonNumber number = com.crimson.types.JsonNumber.newInstance();
-    number.cast(map.get(s));
+    number.cast(resolve(s));
     return number.intValue();
   }
 
@@ -86,9 +103,7 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
 
   @Override
   public boolean getBoolean(String s) {
-    com.crimson.types.JsonBoolean jsonBoolean = JsonBoolean.newInstance();
-    jsonBoolean.cast(map.get(s));
-    return jsonBoolean.booleanValue;
+    return com.crimson.types.JsonBoolean.toBoolean(resolve(s));
   }
 
   @Override
@@ -99,7 +114,7 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
 
   @Override
   public boolean isNull(String s) {
-    JsonType<?> valueType = (JsonType<?>) map.get(s);
+    JsonType<?> valueType = (JsonType<?>) resolve(s);
     return null != valueType && valueType.toString().equals("null");
   }
 
@@ -120,12 +135,13 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
 
   @Override
   public boolean containsValue(Object o) {
+    resolveAll();
     return map.containsValue(o);
   }
 
   @Override
   public JsonValue get(Object o) {
-    return (JsonValue) map.get(o);
+    return resolve(o);
   }
 
   @Override
@@ -138,7 +154,7 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
   public JsonValue remove(Object o) {
     JsonValue value = null;
     if (map.containsKey(o)) {
-      value = (JsonValue) map.get(o);
+      value = resolve(o);
       map.remove(o);
     }
 
@@ -164,12 +180,14 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
 
   @Override
   public Collection<JsonValue> values() {
+    resolveAll();
     return Collections.unmodifiableCollection(
         map.values().stream().map(e -> (JsonValue) e).collect(Collectors.toList()));
   }
 
   @Override
   public Set<Entry<String, JsonValue>> entrySet() {
+    resolveAll();
     Set<?> set = map.entrySet();
     return (Set<Entry<String, JsonValue>>) set;
   }
@@ -181,6 +199,7 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
 
   @Override
   public String toString() {
+    resolveAll();
     StringBuffer buffer = new StringBuffer().append("{");
     map.entrySet().stream()
         .forEach(
@@ -225,9 +244,23 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
       return this;
     }
 
+    if (lazy) {
+      try {
+        char[] chars =
+            value instanceof String
+                ? ((String) value).toCharArray()
+                : JParser.newInstance(value).readFully();
+        return index(chars, 0, chars.length);
+      } catch (Exception e) {
+        throw new UnCastableObjectToInstanceTypeException(
+            String.format("Exception creating JsonObject from input string {%s}: {%s}", value, e));
+      }
+    }
+
+    boolean owner = null == parser;
     try {
-      if (null == parser) {
-        parser = JParser.newInstance(value.toString());
+      if (owner) {
+        parser = JParser.forThread(value);
       }
 
       Event event = parser.next();
@@ -285,29 +318,28 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
             val = null;
             break;
           case VALUE_NUMBER:
-            data = parser.getBigDecimal();
-            val = com.crimson.types.JsonNumber.newInstance().cast(data);
+            val = com.crimson.types.JsonNumber.newInstance().cast(parser);
             map.put(key, val);
             /* Reset key and value for next iteration */
             key = null;
             val = null;
             break;
           case VALUE_TRUE:
-            val = com.crimson.types.JsonBoolean.newInstance().cast(JsonValue.TRUE);
+            val = com.crimson.types.JsonBoolean.getInstance(true);
             map.put(key, val);
             /* Reset key and value for next iteration */
             key = null;
             val = null;
             break;
           case VALUE_FALSE:
-            val = com.crimson.types.JsonBoolean.newInstance().cast(JsonValue.FALSE);
+            val = com.crimson.types.JsonBoolean.getInstance(false);
             map.put(key, val);
             /* Reset key and value for next iteration */
             key = null;
             val = null;
             break;
           case VALUE_NULL:
-            val = com.crimson.types.JsonNull.newInstance().cast(JsonValue.NULL);
+            val = com.crimson.types.JsonNull.getInstance();
             map.put(key, val);
             /* Reset key and value for next iteration */
             key = null;
@@ -322,15 +354,126 @@ public class JsonObject extends JsonType<JsonObject> implements javax.json.JsonO
       /* Close parser if no more tokens are left to parse */
       if (!parser.hasNext()) {
         parser.close();
-        parser = null;
       }
 
       super.value = this;
     } catch (Exception e) {
       throw new UnCastableObjectToInstanceTypeException(
           String.format("Exception creating JsonObject from input string {%s}: {%s}", value, e));
+    } finally {
+      /* The parser is only held while casting. A parser of the thread is closed even if parsing failed so that it
+       * can be reused. */
+      if (owner && null != parser) {
+        parser.close();
+      }
+      parser = null;
+    }
+
+    return this;
+  }
+
+  /**
+   * Index the keys of the object found in a range of source chars. Every value is only skipped over and recorded as a
+   * {@link Deferred} range to be materialized on first read.
+   */
+  private JsonObject index(char[] source, int offset, int length) {
+    this.source = source;
+
+    JParser parser = JParser.newInstance(source, offset, length);
+    Event event = parser.next();
+    if (!event.equals(Event.START_OBJECT)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "JsonObject should always begin with START_OBJECT found {%s} instead",
+              event.toString()));
     }
 
+    while (!(event = parser.next()).equals(Event.END_OBJECT)) {
+      String key = parser.getString();
+      if (StringUtils.isEmpty(key)) {
+        throw new UnCastableObjectToInstanceTypeException(
+            String.format("Key name can't be null or empty in JsonObject"));
+      }
+
+      int start = parser.skipValue();
+      map.put(key, new Deferred(start, parser.getOffset()));
+    }
+
+    /* Fails if there is any content left after the end of the object */
+    parser.hasNext();
+    parser.close();
+
+    super.value = this;
     return this;
   }
+
+  private JsonValue resolve(Object key) {
+    Object value = map.get(key);
+    if (value instanceof Deferred) {
+      JsonValue materialized = materialize((Deferred) value);
+      map.put((String) key, materialized);
+      return materialized;
+    }
+
+    return (JsonValue) value;
+  }
+
+  private void resolveAll() {
+    if (!lazy) {
+      return;
+    }
+
+    map.entrySet().stream()
+        .filter(e -> e.getValue() instanceof Deferred)
+        .forEach(e -> e.setValue(materialize((Deferred) e.getValue())));
+  }
+
+  private JsonValue materialize(Deferred deferred) {
+    int length = deferred.end - deferred.start;
+    if (source[deferred.start] == '{') {
+      return JsonObject.newLazyInstance().index(source, deferred.start, length);
+    }
+
+    JParser parser = JParser.newInstance(source, deferred.start, length);
+    if (source[deferred.start] == '[') {
+      return com.crimson.types.JsonArray.newInstance().cast(deferred, parser);
+    }
+
+    switch (parser.next()) {
+      case VALUE_STRING:
+        return com.crimson.types.JsonString.newInstance().cast(parser.getString());
+      case VALUE_NUMBER:
+        return com.crimson.types.JsonNumber.newInstance().cast(parser);
+      case VALUE_TRUE:
+        return com.crimson.types.JsonBoolean.getInstance(true);
+      case VALUE_FALSE:
+        return com.crimson.types.JsonBoolean.getInstance(false);
+      default:
+        return com.crimson.types.JsonNull.getInstance();
+    }
+  }
+
+  /**
+   * Placeholder for a value of a lazy JsonObject that has not been materialized yet
+   */
+  private static final class Deferred implements JsonValue {
+
+    final int start;
+    final int end;
+
+    Deferred(int start, int end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    public ValueType getValueType() {
+      throw new IllegalStateException("Deferred value has not been materialized");
+    }
+
+    @Override
+    public String toString() {
+      return String.format("[%d, %d)", start, end);
+    }
+  }
 }
@@ -27,7 +27,8 @@ public class JsonString extends JsonType<JsonString> implements javax.json.JsonS
 
   @Override
   public String toString() {
-    if (null != string && string.charAt(0) == '\"' && string.charAt(string.length() - 1) == '\"') {
+    if (null != string && string.length() > 1 && string.charAt(0) == '\"'
+        && string.charAt(string.length() - 1) == '\"') {
       return string;
     } else {
       return new StringBuffer().append("\"").append(string).append("\"").toString();
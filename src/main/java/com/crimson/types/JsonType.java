@@ -18,6 +18,15 @@ public abstract class JsonType<T extends JsonType> implements JsonValue, Cloneab
     return value;
   }
 
+  /**
+   * Whether the instance is shared and can't change its value. Casting a shared instance to another value of its type
+   * throws {@link IllegalStateException}, casting it to input its type can't represent throws
+   * {@link UnCastableObjectToInstanceTypeException} like for any other instance.
+   */
+  public boolean isImmutable() {
+    return false;
+  }
+
   public static class UnCastableObjectToInstanceTypeException extends RuntimeException {
 
     public UnCastableObjectToInstanceTypeException(String message) {
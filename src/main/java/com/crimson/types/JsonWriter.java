@@ -1,12 +1,20 @@
 package com.crimson.types;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
-import java.util.Arrays;
-import java.util.Optional;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import javax.json.JsonValue;
 
+/**
+ * Serializes JsonType objects by walking the tree and writing tokens straight into a reusable buffer, without building
+ * intermediate strings. UTF-8 output is encoded into a byte buffer which is flushed to the output stream whenever it
+ * fills up. Output to a writer, or in any other encoding scheme, goes through a char buffer. Write operations on the
+ * same instance are serialized.
+ */
 public class JsonWriter implements IJsonWriter<JsonType> {
 
   /**
@@ -14,61 +22,398 @@ public class JsonWriter implements IJsonWriter<JsonType> {
    */
   static final String LINE_SEPARATOR = String.valueOf('\n');
 
+  /**
+   * Size of the output buffer
+   */
+  private static final int BUFFER_SIZE = 8_192;
+
+  /**
+   * Generators are created on first use and reused across write operations
+   */
+  private Utf8Generator utf8Generator;
+  private CharGenerator charGenerator;
+
   @Override
   public void write(JsonType<JsonType> object, OutputStream out) throws IOException {
-    write(object, out, Charset.defaultCharset());
+    write(object, out, StandardCharsets.UTF_8);
   }
 
   @Override
-  public void write(JsonType<JsonType> object, OutputStream out, Charset charset)
+  public synchronized void write(JsonType<JsonType> object, OutputStream out, Charset charset)
       throws IOException {
-    String value = null;
-    value = object.toString();
-    out.write(value.getBytes(charset));
+    if (StandardCharsets.UTF_8.equals(charset)) {
+      Utf8Generator generator = utf8Generator(out);
+      try {
+        generator.writeValue(object);
+        generator.flush();
+      } finally {
+        generator.release();
+      }
+    } else {
+      Writer writer = new OutputStreamWriter(out, charset);
+      write(object, writer);
+      writer.flush();
+    }
   }
 
   @Override
-  public void write(JsonType<JsonType>[] objects, OutputStream out) throws IOException {
-    byte[] lineSep = LINE_SEPARATOR.getBytes(Charset.defaultCharset());
-
-    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-
-    Optional<IOException> ioException =
-        Arrays.asList(objects).stream()
-            .map(
-                e -> {
-                  IOException exception = null;
-                  try {
-                    byte[] data = e.toString().getBytes(Charset.defaultCharset());
-                    byteArrayOutputStream.write(data);
-                    byteArrayOutputStream.write(lineSep);
-                  } catch (IOException ex) {
-                    exception = ex;
-                  }
-
-                  return Optional.ofNullable(exception);
-                })
-            .reduce(
-                (u, v) -> {
-                  if (u.isPresent()) {
-                    return u;
-                  } else if (v.isPresent()) {
-                    return v;
-                  } else {
-                    return Optional.empty();
-                  }
-                })
-            .get();
-
-    if (ioException.isPresent()) {
-      throw new IOException(ioException.get());
-    }
-
-    out.write(byteArrayOutputStream.toByteArray());
-    byteArrayOutputStream.flush();
-    byteArrayOutputStream.close();
+  public synchronized void write(JsonType<JsonType>[] objects, OutputStream out) throws IOException {
+    Utf8Generator generator = utf8Generator(out);
+    try {
+      for (JsonType<JsonType> object : objects) {
+        generator.writeValue(object);
+        generator.writeRaw(LINE_SEPARATOR);
+      }
+      generator.flush();
+    } finally {
+      generator.release();
+    }
   }
 
   @Override
-  public void close() throws IOException {}
+  public synchronized void write(JsonType<JsonType> object, Writer writer) throws IOException {
+    CharGenerator generator = charGenerator(writer);
+    try {
+      generator.writeValue(object);
+      generator.flush();
+    } finally {
+      generator.release();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    utf8Generator = null;
+    charGenerator = null;
+  }
+
+  private Utf8Generator utf8Generator(OutputStream out) {
+    if (null == utf8Generator) {
+      utf8Generator = new Utf8Generator();
+    }
+    utf8Generator.count = 0;
+    utf8Generator.out = out;
+    return utf8Generator;
+  }
+
+  private CharGenerator charGenerator(Writer writer) {
+    if (null == charGenerator) {
+      charGenerator = new CharGenerator();
+    }
+    charGenerator.count = 0;
+    charGenerator.writer = writer;
+    return charGenerator;
+  }
+
+  /**
+   * Walks a tree of JSON values and emits tokens. Subclasses write the tokens into their own buffer.
+   */
+  private abstract static class Generator {
+
+    static final String TRUE = "true";
+    static final String FALSE = "false";
+    static final String NULL = "null";
+
+    void writeValue(Object value) throws IOException {
+      if (value instanceof JsonObject) {
+        writeRaw('{');
+        boolean first = true;
+        for (Map.Entry<String, JsonValue> e : ((JsonObject) value).entrySet()) {
+          if (!first) {
+            writeRaw(',');
+          }
+          first = false;
+          writeString(e.getKey());
+          writeRaw(':');
+          writeValue(e.getValue());
+        }
+        writeRaw('}');
+      } else if (value instanceof JsonArray) {
+        writeRaw('[');
+        boolean first = true;
+        for (JsonValue e : (JsonArray) value) {
+          if (!first) {
+            writeRaw(',');
+          }
+          first = false;
+          writeValue(e);
+        }
+        writeRaw(']');
+      } else if (value instanceof JsonString) {
+        writeString(((JsonString) value).getString());
+      } else if (value instanceof JsonNumber) {
+        JsonNumber number = (JsonNumber) value;
+        if (number.isLong()) {
+          writeLong(number.longValue());
+        } else {
+          writeRaw(number.toString());
+        }
+      } else if (value instanceof JsonBoolean) {
+        writeRaw(Boolean.TRUE.equals(((JsonBoolean) value).booleanValue) ? TRUE : FALSE);
+      } else if (null == value || value instanceof JsonNull) {
+        writeRaw(NULL);
+      } else {
+        writeRaw(value.toString());
+      }
+    }
+
+    void writeLong(long value) throws IOException {
+      if (value == Long.MIN_VALUE) {
+        writeRaw(Long.toString(value));
+        return;
+      }
+
+      if (value < 0) {
+        writeRaw('-');
+        value = -value;
+      }
+
+      /* Write digits from the least significant one into a small scratch area */
+      char[] digits = scratch();
+      int i = digits.length;
+      do {
+        digits[--i] = (char) ('0' + value % 10);
+        value /= 10;
+      } while (value != 0);
+
+      for (; i < digits.length; i++) {
+        writeRaw(digits[i]);
+      }
+    }
+
+    abstract char[] scratch();
+
+    abstract void writeRaw(char c) throws IOException;
+
+    abstract void writeRaw(String s) throws IOException;
+
+    abstract void writeString(String s) throws IOException;
+
+    abstract void flush() throws IOException;
+
+    /**
+     * Unbind the output and drop anything left in the buffer by a failed write
+     */
+    abstract void release();
+
+    static char hex(int digit) {
+      return (char) (digit < 10 ? '0' + digit : 'a' + digit - 10);
+    }
+
+    /**
+     * Short escape sequence for a char or zero if the char must be written as a unicode escape (or not escaped at all).
+     */
+    static char escape(char c) {
+      switch (c) {
+        case '"':
+          return '"';
+        case '\\':
+          return '\\';
+        case '\b':
+          return 'b';
+        case '\f':
+          return 'f';
+        case '\n':
+          return 'n';
+        case '\r':
+          return 'r';
+        case '\t':
+          return 't';
+        default:
+          return 0;
+      }
+    }
+  }
+
+  /**
+   * Encodes tokens as UTF-8 directly into a byte buffer
+   */
+  private static final class Utf8Generator extends Generator {
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final char[] scratch = new char[20];
+    private int count = 0;
+    private OutputStream out;
+
+    @Override
+    char[] scratch() {
+      return scratch;
+    }
+
+    @Override
+    void writeRaw(char c) throws IOException {
+      if (count == buffer.length) {
+        flushBuffer();
+      }
+      buffer[count++] = (byte) c;
+    }
+
+    @Override
+    void writeRaw(String s) throws IOException {
+      /* Raw tokens are always ASCII */
+      for (int i = 0, length = s.length(); i < length; i++) {
+        writeRaw(s.charAt(i));
+      }
+    }
+
+    @Override
+    void writeString(String s) throws IOException {
+      writeRaw('"');
+      for (int i = 0, length = s.length(); i < length; i++) {
+        /* Room for the longest sequence i.e. a unicode escape */
+        if (buffer.length - count < 6) {
+          flushBuffer();
+        }
+
+        char c = s.charAt(i);
+        if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+          buffer[count++] = (byte) c;
+        } else if (c < 0x80) {
+          char escape = escape(c);
+          buffer[count++] = '\\';
+          if (escape != 0) {
+            buffer[count++] = (byte) escape;
+          } else {
+            buffer[count++] = 'u';
+            buffer[count++] = '0';
+            buffer[count++] = '0';
+            buffer[count++] = (byte) hex(c >> 4);
+            buffer[count++] = (byte) hex(c & 0xF);
+          }
+        } else if (c < 0x800) {
+          buffer[count++] = (byte) (0xC0 | (c >> 6));
+          buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(s.charAt(i + 1))) {
+          int code = Character.toCodePoint(c, s.charAt(++i));
+          buffer[count++] = (byte) (0xF0 | (code >> 18));
+          buffer[count++] = (byte) (0x80 | ((code >> 12) & 0x3F));
+          buffer[count++] = (byte) (0x80 | ((code >> 6) & 0x3F));
+          buffer[count++] = (byte) (0x80 | (code & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+          /* Unpaired surrogate has no UTF-8 encoding, it is kept as a unicode escape */
+          buffer[count++] = '\\';
+          buffer[count++] = 'u';
+          buffer[count++] = (byte) hex(c >> 12);
+          buffer[count++] = (byte) hex((c >> 8) & 0xF);
+          buffer[count++] = (byte) hex((c >> 4) & 0xF);
+          buffer[count++] = (byte) hex(c & 0xF);
+        } else {
+          buffer[count++] = (byte) (0xE0 | (c >> 12));
+          buffer[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          buffer[count++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+      writeRaw('"');
+    }
+
+    @Override
+    void flush() throws IOException {
+      flushBuffer();
+    }
+
+    @Override
+    void release() {
+      count = 0;
+      out = null;
+    }
+
+    private void flushBuffer() throws IOException {
+      if (count > 0) {
+        out.write(buffer, 0, count);
+        count = 0;
+      }
+    }
+  }
+
+  /**
+   * Writes tokens into a char buffer which is flushed to a writer
+   */
+  private static final class CharGenerator extends Generator {
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final char[] scratch = new char[20];
+    private int count = 0;
+    private Writer writer;
+
+    @Override
+    char[] scratch() {
+      return scratch;
+    }
+
+    @Override
+    void writeRaw(char c) throws IOException {
+      if (count == buffer.length) {
+        flushBuffer();
+      }
+      buffer[count++] = c;
+    }
+
+    @Override
+    void writeRaw(String s) throws IOException {
+      for (int i = 0, length = s.length(); i < length; i++) {
+        writeRaw(s.charAt(i));
+      }
+    }
+
+    @Override
+    void writeString(String s) throws IOException {
+      writeRaw('"');
+      for (int i = 0, length = s.length(); i < length; i++) {
+        if (buffer.length - count < 6) {
+          flushBuffer();
+        }
+
+        char c = s.charAt(i);
+        if (Character.isHighSurrogate(c)
+            && i + 1 < length
+            && Character.isLowSurrogate(s.charAt(i + 1))) {
+          buffer[count++] = c;
+          buffer[count++] = s.charAt(++i);
+        } else if (Character.isSurrogate(c)) {
+          /* Unpaired surrogate is escaped, like the UTF-8 generator does */
+          buffer[count++] = '\\';
+          buffer[count++] = 'u';
+          buffer[count++] = hex(c >> 12);
+          buffer[count++] = hex((c >> 8) & 0xF);
+          buffer[count++] = hex((c >> 4) & 0xF);
+          buffer[count++] = hex(c & 0xF);
+        } else if (c >= 0x20 && c != '"' && c != '\\') {
+          buffer[count++] = c;
+        } else {
+          char escape = escape(c);
+          buffer[count++] = '\\';
+          if (escape != 0) {
+            buffer[count++] = escape;
+          } else {
+            buffer[count++] = 'u';
+            buffer[count++] = '0';
+            buffer[count++] = '0';
+            buffer[count++] = hex(c >> 4);
+            buffer[count++] = hex(c & 0xF);
+          }
+        }
+      }
+      writeRaw('"');
+    }
+
+    @Override
+    void flush() throws IOException {
+      flushBuffer();
+    }
+
+    @Override
+    void release() {
+      count = 0;
+      writer = null;
+    }
+
+    private void flushBuffer() throws IOException {
+      if (count > 0) {
+        writer.write(buffer, 0, count);
+        count = 0;
+      }
+    }
+  }
 }
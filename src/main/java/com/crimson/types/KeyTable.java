@@ -0,0 +1,135 @@
+package com.crimson.types;
+
+import java.util.Arrays;
+
+/**
+ * Bounded symbol table of object keys. Keys are looked up straight from the chars of the parser buffer, so a key seen
+ * before resolves to the same String instance without allocating. Once the table is full, new keys are returned as new
+ * Strings without being added, and keys longer than {@link #MAX_KEY_LENGTH} are never added. A table is not thread
+ * safe, it belongs to a single parser or stream at a time.
+ */
+public class KeyTable {
+
+  static final int DEFAULT_CAPACITY = 1_024;
+
+  /**
+   * Longest key added to the table
+   */
+  static final int MAX_KEY_LENGTH = 128;
+
+  private final int capacity;
+  private final String[] keys;
+  private final int[] hashes;
+  private final int mask;
+  private int size = 0;
+
+  private KeyTable(int capacity) {
+    if (capacity <= 0 || capacity > 1 << 24) {
+      throw new IllegalArgumentException(String.format("Invalid key table capacity {%d}", capacity));
+    }
+
+    /* Open addressing with at most half of the slots in use, so that probing always finds an empty slot */
+    int slots = Integer.highestOneBit(capacity) << 2;
+    this.capacity = capacity;
+    this.keys = new String[slots];
+    this.hashes = new int[slots];
+    this.mask = slots - 1;
+  }
+
+  public static KeyTable newInstance() {
+    return new KeyTable(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param capacity Maximum number of keys held by the table
+   */
+  public static KeyTable newInstance(int capacity) {
+    return new KeyTable(capacity);
+  }
+
+  /**
+   * Canonical String of a key
+   *
+   * @param chars  Chars holding the key
+   * @param offset Offset of the first char of the key
+   * @param length Number of chars of the key
+   * @return String instance held by the table, or a new String if the key isn't in the table and can't be added
+   */
+  public String intern(char[] chars, int offset, int length) {
+    if (length > MAX_KEY_LENGTH) {
+      return new String(chars, offset, length);
+    }
+
+    /* Same hash as String.hashCode */
+    int hash = 0;
+    for (int i = offset, end = offset + length; i < end; i++) {
+      hash = 31 * hash + chars[i];
+    }
+
+    int index = (hash ^ (hash >>> 16)) & mask;
+    for (String key = keys[index]; null != key; key = keys[index]) {
+      if (hashes[index] == hash && matches(key, chars, offset, length)) {
+        return key;
+      }
+      index = (index + 1) & mask;
+    }
+
+    String key = new String(chars, offset, length);
+    if (size < capacity) {
+      keys[index] = key;
+      hashes[index] = hash;
+      ++size;
+    }
+    return key;
+  }
+
+  /**
+   * Canonical String of a key
+   */
+  public String intern(String key) {
+    if (key.length() > MAX_KEY_LENGTH) {
+      return key;
+    }
+
+    int hash = key.hashCode();
+    int index = (hash ^ (hash >>> 16)) & mask;
+    for (String existing = keys[index]; null != existing; existing = keys[index]) {
+      if (hashes[index] == hash && existing.equals(key)) {
+        return existing;
+      }
+      index = (index + 1) & mask;
+    }
+
+    if (size < capacity) {
+      keys[index] = key;
+      hashes[index] = hash;
+      ++size;
+    }
+    return key;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public void clear() {
+    Arrays.fill(keys, null);
+    size = 0;
+  }
+
+  private static boolean matches(String key, char[] chars, int offset, int length) {
+    if (key.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (key.charAt(i) != chars[offset + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,129 @@
+package com.crimson.converter;
+
+import com.crimson.converter.Column.DoubleColumn;
+import com.crimson.converter.Column.StringColumn;
+import com.crimson.converter.Column.Type;
+import com.crimson.converter.DataFrame.Storage;
+import com.crimson.types.JsonObject;
+import com.crimson.types.JsonType;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnTest {
+
+  @Before
+  public void setUp() throws Exception {
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  private static JsonType<?> value(String json) {
+    return (JsonType<?>) JsonObject.newInstance().cast("{\"key\": " + json + "}").get("key");
+  }
+
+  @Test
+  public void columnTypeFromValue_Test() {
+    Assert.assertTrue(Column.newInstance("a", value("1")).getType() == Type.LONG);
+    Assert.assertTrue(Column.newInstance("a", value("1.5")).getType() == Type.DOUBLE);
+    Assert.assertTrue(Column.newInstance("a", value("0.1234567890123456789")).getType() == Type.STRING);
+    Assert.assertTrue(Column.newInstance("a", value("true")).getType() == Type.BOOLEAN);
+    Assert.assertTrue(Column.newInstance("a", value("\"text\"")).getType() == Type.STRING);
+    Assert.assertTrue(Column.newInstance("a", value("[1, 2]")).getType() == Type.STRING);
+    Assert.assertTrue(Column.newInstance("a", value("null")).getType() == Type.NULL);
+  }
+
+  @Test
+  public void widenLongToDoubleAndString_Test() {
+    Column column = Column.newInstance("a", value("null"));
+    column = column.add(value("null"));
+    column = column.add(value("7"));
+    Assert.assertTrue(column.getType() == Type.LONG);
+
+    column = column.add(value("2.5"));
+    Assert.assertTrue(column.getType() == Type.DOUBLE);
+    Assert.assertTrue(column.getString(0).equals("null") && column.getString(1).equals("7.0"));
+
+    column = column.add(value("false"));
+    Assert.assertTrue(column.getType() == Type.STRING && column.size() == 4);
+    Assert.assertTrue(column.getString(2).equals("2.5") && column.getString(3).equals("false"));
+    Assert.assertTrue(column.isNull(0) && !column.isNull(1));
+  }
+
+  @Test
+  public void mixedValuesStayInStringColumn_Test() {
+    Column column = Column.newInstance("a", Type.STRING);
+    Column strings = column;
+    for (int i = 0; i < 20_000; i++) {
+      column = column.add(value(i % 2 == 0 ? "\"s" + i + "\"" : i % 3 == 0 ? "true" : String.valueOf(i)));
+      Assert.assertTrue(column == strings);
+    }
+    Assert.assertTrue(column.size() == 20_000 && column.getString(0).equals("s0") && column.getString(1).equals("1")
+        && column.getString(3).equals("true") && column.widen(Type.DOUBLE) == strings);
+  }
+
+  @Test
+  public void dictionaryEncodedStrings_Test() {
+    StringColumn column = (StringColumn) Column.newInstance("a", Type.STRING);
+    for (int i = 0; i < StringColumn.MAX_DICTIONARY_SIZE; i++) {
+      column.addString(Integer.toString(i));
+    }
+    Assert.assertTrue(column.isDictionaryEncoded());
+
+    column.addNull();
+    column.addString("new");
+    Assert.assertTrue(!column.isDictionaryEncoded());
+    Assert.assertTrue(column.getString(0).equals("0") && column.getString(1).equals("1"));
+    Assert.assertTrue(column.isNull(StringColumn.MAX_DICTIONARY_SIZE));
+    Assert.assertTrue(column.getString(StringColumn.MAX_DICTIONARY_SIZE + 1).equals("new"));
+  }
+
+  @Test
+  public void clearColumn_Test() {
+    Column column = Column.newInstance("a", value("true"));
+    column = column.add(value("true"));
+    column.addNull();
+    column.clear();
+    column = column.add(value("false"));
+    Assert.assertTrue(column.size() == 1 && !column.isNull(0) && column.getString(0).equals("false"));
+  }
+
+  @Test
+  public void offHeapColumns_Test() {
+    for (Storage storage : Storage.values()) {
+      Column longs = Column.newInstance("a", Type.LONG, storage);
+      Column strings = Column.newInstance("b", Type.STRING, storage);
+      for (int i = 0; i < 10_000; i++) {
+        longs = longs.add(value(Long.toString(i * 1_000_000_007L)));
+        strings = strings.add(value("\"s" + (i % 10) + "\""));
+      }
+
+      Column doubles = longs.add(value("0.5"));
+      Assert.assertTrue(doubles.getType() == Type.DOUBLE && doubles.size() == 10_001);
+      Assert.assertTrue(((DoubleColumn) doubles).getDouble(9_999) == 9_999 * 1_000_000_007d);
+      Assert.assertTrue(strings.getString(9_999).equals("s9"));
+
+      doubles.close();
+      strings.close();
+    }
+  }
+
+  @Test
+  public void estimatedSize_Test() {
+    Column longs = Column.newInstance("a", Type.LONG);
+    Column strings = Column.newInstance("b", Type.STRING);
+    for (int i = 0; i < 1_000; i++) {
+      longs = longs.add(value(Integer.toString(i)));
+      strings = strings.add(value("\"" + (i % 2 == 0 ? "even" : "odd") + "\""));
+    }
+    Assert.assertTrue(longs.getEstimatedSize() >= 8_000 && longs.getEstimatedSize() < 9_000);
+    Assert.assertTrue(strings.getEstimatedSize() >= 4_000 && strings.getEstimatedSize() < 5_000);
+
+    longs.clear();
+    strings.clear();
+    Assert.assertTrue(longs.getEstimatedSize() == 0 && strings.getEstimatedSize() == 0);
+  }
+}
@@ -1,9 +1,16 @@
 package com.crimson.converter;
 
-import static com.crimson.converter.DataFrame.DataFrameBuilder.newInstance;
-
+import com.crimson.converter.Column.Type;
+import com.crimson.converter.DataFrame.DataFrameBuilder;
 import com.crimson.types.JsonObject;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -27,7 +34,7 @@ public class DataFrameBuilderTest {
   @Test
   public void verify_DataFrame_headers_load_test() {
     if (checkFileExists()) {
-      DataFrame dataFrame = newInstance();
+      DataFrame dataFrame = DataFrameBuilder.newInstance("/tmp/data/sample-json.json").build();
       Assert.assertNotNull(dataFrame);
       Assert.assertTrue(dataFrame.initialized());
     }
@@ -43,7 +50,7 @@ public class DataFrameBuilderTest {
   @Test
   public void verify_DataFrame_headers_and_rows_load_test() {
     if (checkFileExists()) {
-      DataFrame dataFrame = newInstance();
+      DataFrame dataFrame = DataFrameBuilder.newInstance("/tmp/data/sample-json.json").build();
       Assert.assertNotNull(dataFrame);
       Assert.assertTrue(dataFrame.initialized());
       JsonObject jsonObject = JsonObject.newInstance();
@@ -51,4 +58,87 @@ public class DataFrameBuilderTest {
       dataFrame.addRow(jsonObject);
     }
   }
+
+  @Test
+  public void inferSchemaWidensTypes_Test() {
+    List<String> records = Arrays.asList(
+        "{\"a\": 1, \"b\": 1, \"c\": null, \"d\": {\"e\": true}}",
+        "{\"a\": 2, \"b\": 2.5, \"c\": 3}",
+        "{\"a\": 3, \"b\": \"text\", \"f\": false, \"d\": {\"e\": false}}");
+    Map<String, Type> schema = DataFrameBuilder.inferSchema(records);
+    Assert.assertTrue(schema.keySet().toString().equals("[a, b, c, d.e, f]"));
+    Assert.assertTrue(schema.get("a") == Type.LONG && schema.get("b") == Type.STRING && schema.get("c") == Type.LONG);
+    Assert.assertTrue(schema.get("d.e") == Type.BOOLEAN && schema.get("f") == Type.BOOLEAN);
+    Assert.assertTrue(Column.widen(Type.LONG, Type.DOUBLE) == Type.DOUBLE);
+  }
+
+  @Test
+  public void sampleRecordsOfSource_Test() throws Exception {
+    Path input = Files.createTempFile("crimson", ".json");
+    try {
+      Files.write(input, Arrays.asList("{\"a\": 1}", "", "{\"a\": 1.5, \"b\": \"x\"}", "{\"c\": 1}"));
+
+      DataFrame frame = DataFrameBuilder.newInstance(input.toString()).setSamplePolicy(2, 1_000).build();
+      Assert.assertTrue(frame.getColCount() == 2 && frame.getColumn("a").getType() == Type.DOUBLE);
+      frame.addRow("{\"b\": \"y\"}");
+      Assert.assertTrue(frame.toString().startsWith("a,b") && frame.getColumn("a").isNull(0));
+
+      /* Byte budget stops after the first record */
+      frame = DataFrameBuilder.newInstance(input.toString()).setSamplePolicy(100, 1).build();
+      Assert.assertTrue(frame.getColCount() == 1 && frame.getColumn("a").getType() == Type.LONG);
+    } finally {
+      Files.delete(input);
+    }
+  }
+
+  @Test
+  public void sampleBytesCountsUtf8_Test() throws Exception {
+    Path input = Files.createTempFile("crimson", ".json");
+    try {
+      /* First line is 14 chars but 18 bytes with its terminator */
+      Files.write(input, Arrays.asList("{\"s\": \"\u00e9\u00e9\u00e9\u00e9\"}", "{\"t\": 1}"), StandardCharsets.UTF_8);
+
+      DataFrame frame = DataFrameBuilder.newInstance(input.toString()).setSamplePolicy(100, 16).build();
+      Assert.assertTrue(frame.getColCount() == 1 && null != frame.getColumn("s"));
+    } finally {
+      Files.delete(input);
+    }
+  }
+
+  @Test
+  public void addColumnsMidStream_Test() {
+    DataFrame frame = DataFrameBuilder.fromRecords(Arrays.asList("{\"a\": 1}"));
+    for (int i = 0; i < 1_000; i++) {
+      frame.addRow("{\"a\": " + i + "}");
+    }
+    frame.addRow("{\"a\": 1000, \"b\": {\"c\": 2.5}}");
+    frame.addRow("{\"a\": 1001}");
+
+    Column column = frame.getColumn("b.c");
+    Assert.assertTrue(frame.getColCount() == 2 && column.getType() == Type.DOUBLE && column.size() == 1_002);
+    Assert.assertTrue(column.isNull(999) && !column.isNull(1_000) && column.isNull(1_001));
+    Assert.assertTrue(frame.toString().startsWith("a,b.c" + System.lineSeparator() + "0,"));
+  }
+
+  @Test
+  public void buildersAreIndependent_Test() throws Exception {
+    Path first = Files.createTempFile("crimson", ".json");
+    Path second = Files.createTempFile("crimson", ".json");
+    try {
+      Files.write(first, Arrays.asList("{\"a\": 1}"));
+      Files.write(second, Arrays.asList("{\"b\": true}"));
+      DataFrameBuilder builder = DataFrameBuilder.newInstance(first.toString());
+      DataFrameBuilder other = DataFrameBuilder.newInstance(second.toString());
+
+      List<DataFrame> frames = Arrays.asList(new DataFrame[8]).parallelStream()
+          .map(e -> builder.build())
+          .collect(Collectors.toList());
+      Assert.assertTrue(frames.stream().allMatch(e -> e.getColCount() == 1 && null != e.getColumn("a")));
+      Assert.assertTrue(frames.stream().distinct().count() == frames.size());
+      Assert.assertTrue(null != other.build().getColumn("b") && null == other.build().getColumn("a"));
+    } finally {
+      Files.delete(first);
+      Files.delete(second);
+    }
+  }
 }
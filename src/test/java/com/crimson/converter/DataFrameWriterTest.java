@@ -0,0 +1,73 @@
+package com.crimson.converter;
+
+import com.crimson.converter.DataFrame.DataFrameWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataFrameWriterTest {
+
+  @Before
+  public void setUp() throws Exception {
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  private static String write(String... fields) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DataFrameWriter writer = new DataFrameWriter(out);
+    for (String field : fields) {
+      writer.writeField(field);
+    }
+    writer.flush();
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void plainFieldsAreNotQuoted_Test() throws IOException {
+    Assert.assertTrue(write("John. S").equals("John. S"));
+    Assert.assertTrue(write("über €").equals("über €"));
+  }
+
+  @Test
+  public void fieldsWithSeparatorsAreQuoted_Test() throws IOException {
+    Assert.assertTrue(write("a,b").equals("\"a,b\""));
+    Assert.assertTrue(write("say \"hi\"").equals("\"say \"\"hi\"\"\""));
+    Assert.assertTrue(write("two\nlines").equals("\"two\nlines\""));
+  }
+
+  @Test
+  public void unpairedSurrogateIsReplaced_Test() throws IOException {
+    Assert.assertTrue(write("a\uD800b").equals("a\uFFFDb"));
+    Assert.assertTrue(write("\uDC00").equals("\uFFFD"));
+    Assert.assertTrue(write("\uD83D\uDE00").equals("\uD83D\uDE00"));
+  }
+
+  @Test
+  public void writeLongValues_Test() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    DataFrameWriter writer = new DataFrameWriter(out);
+    writer.writeLong(0);
+    writer.writeLong(-1_596_346_582L);
+    writer.writeLong(Long.MIN_VALUE);
+    writer.flush();
+    Assert.assertTrue(
+        new String(out.toByteArray(), StandardCharsets.US_ASCII).equals("0-1596346582" + Long.MIN_VALUE));
+  }
+
+  @Test
+  public void writeLargeField_Test() throws IOException {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) {
+      builder.append("é,");
+    }
+    String csv = write(builder.toString());
+    Assert.assertTrue(csv.length() == 200_002 && csv.charAt(0) == '"' && csv.endsWith(",\""));
+  }
+}
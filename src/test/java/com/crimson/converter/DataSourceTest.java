@@ -0,0 +1,126 @@
+package com.crimson.converter;
+
+import com.crimson.types.JsonObject;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataSourceTest {
+
+  private Path path;
+
+  @Before
+  public void before() throws IOException {
+    path = Files.createTempFile("crimson", ".json");
+  }
+
+  @After
+  public void after() throws IOException {
+    Files.deleteIfExists(path);
+  }
+
+  private void write(int count) throws IOException {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append("{\"id\": ").append(i).append(", \"name\": \"näme ").append(i).append("\"}");
+      builder.append(i % 10 == 0 ? "\r\n\n" : "\n");
+    }
+    Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static void await(List<?> records, int count) throws InterruptedException {
+    for (int i = 0; i < 1_000 && records.size() < count; i++) {
+      Thread.sleep(10);
+    }
+  }
+
+  @Test
+  public void readerRecords_Test() throws Exception {
+    write(2_500);
+    Files.write(path, "{\"id\": 2500, \"name\": \"tail\"}".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    List<Object> records = new ArrayList<>();
+    DataSource<Object> dataSource = new DataSource<>(path.toString());
+    dataSource.start(e -> records.addAll(Arrays.asList(e)));
+
+    /* Returns at the end of the input, including the last line without a terminator */
+    Assert.assertTrue(dataSource.isStopped() && !dataSource.isErr() && records.size() == 2_501);
+    Assert.assertTrue(records.get(0).equals("{\"id\": 0, \"name\": \"n\u00e4me 0\"}"));
+    Assert.assertTrue(JsonObject.newInstance().cast(records.get(2_500)).getInt("id") == 2_500);
+  }
+
+  @Test
+  public void memoryMappedRecords_Test() throws Exception {
+    write(5_000);
+
+    List<Object> records = new CopyOnWriteArrayList<>();
+    DataSource<Object> dataSource = new DataSource<>(path.toString(), 256);
+    dataSource.start(e -> records.addAll(Arrays.asList(e)));
+    await(records, 5_000);
+
+    Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    for (Object record : records) {
+      Assert.assertTrue(record instanceof ByteBuffer);
+      ids.add(JsonObject.newInstance().cast(record).getInt("id"));
+    }
+    Assert.assertTrue(dataSource.isStopped() && !dataSource.isErr());
+    Assert.assertTrue(records.size() == 5_000 && ids.size() == 5_000);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void recordLongerThanMapRegion_Test() throws Exception {
+    write(10);
+    DataSource<Object> dataSource = new DataSource<>(path.toString(), 16);
+    dataSource.start(e -> {});
+  }
+
+  @Test
+  public void parallelUnorderedRecords_Test() throws Exception {
+    write(5_000);
+
+    List<Object> records = new CopyOnWriteArrayList<>();
+    DataSource<Object> dataSource =
+        new DataSource<Object>(path.toString(), 512).setParallelism(8, null, false);
+    dataSource.start(e -> records.addAll(Arrays.asList(e)));
+
+    Set<Integer> ids = ConcurrentHashMap.newKeySet();
+    records.forEach(e -> ids.add(((JsonObject) e).getInt("id")));
+    Assert.assertTrue(dataSource.isStopped() && records.size() == 5_000 && ids.size() == 5_000);
+  }
+
+  @Test
+  public void parallelOrderedRecords_Test() throws Exception {
+    write(5_000);
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Object> records = new ArrayList<>();
+      DataSource<Object> dataSource =
+          new DataSource<Object>(path.toString(), 512).setParallelism(7, executor, true);
+      dataSource.start(e -> records.addAll(Arrays.asList(e)));
+
+      Assert.assertTrue(records.size() == 5_000);
+      for (int i = 0; i < records.size(); i++) {
+        Assert.assertTrue(((JsonObject) records.get(i)).getInt("id") == i);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
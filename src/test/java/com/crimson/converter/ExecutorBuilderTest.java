@@ -0,0 +1,61 @@
+package com.crimson.converter;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExecutorBuilderTest {
+
+  @Before
+  public void setUp() throws Exception {
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  @Test
+  public void namedDaemonThreads_Test() throws Exception {
+    ExecutorService executor =
+        ExecutorBuilder.newInstance().setThreadCount(2).setNamePrefix("test-").setDaemon(true).build();
+    Thread thread = executor.submit(Thread::currentThread).get();
+    Assert.assertTrue(thread.getName().startsWith("test-") && thread.isDaemon());
+    Assert.assertTrue(ExecutorBuilder.shutdown(executor, 10, TimeUnit.SECONDS) && executor.isTerminated());
+  }
+
+  @Test
+  public void shutdownInterruptsTasksAfterTimeout_Test() throws Exception {
+    ExecutorService executor = ExecutorBuilder.newInstance().setThreadCount(1).build();
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch interrupted = new CountDownLatch(1);
+    executor.submit(() -> {
+      started.countDown();
+      try {
+        Thread.sleep(60_000);
+      } catch (InterruptedException e) {
+        interrupted.countDown();
+      }
+      return null;
+    });
+    Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+    ExecutorBuilder.shutdown(executor, 10, TimeUnit.MILLISECONDS);
+    Assert.assertTrue(interrupted.await(10, TimeUnit.SECONDS) && executor.awaitTermination(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void virtualThreadsOrFixedPool_Test() throws Exception {
+    ExecutorService executor = ExecutorBuilder.newInstance().setVirtualThreads(true).setNamePrefix("v-").build();
+    Thread thread = executor.submit(Thread::currentThread).get();
+    Assert.assertTrue(thread.getName().startsWith("v-"));
+    ExecutorBuilder.shutdown(executor, 10, TimeUnit.SECONDS);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidThreadCount_Test() {
+    ExecutorBuilder.newInstance().setThreadCount(0);
+  }
+}
@@ -1,7 +1,17 @@
 package com.crimson.converter;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -21,15 +31,260 @@ public class SourceToSinkTest {
   }
 
   @Test
-  public void sourceToSkink_create_dataframe_test() {
-    /*
-    SourceToSink sourceToSink =
-        new SourceToSink()
-            .readFromSource("/tmp/data/data-json.json")
-            .writeToSink("/tmp/data/out.csv", true)
-            .setMaximumRowLimit(1)
-            .setMaximumMB(25)
-            .start();
-    */
+  public void sourceToSinkWithDefaults_Test() throws Exception {
+    Path input = Files.createTempFile("crimson", ".json");
+    Path output = Files.createTempFile("crimson", ".csv");
+    try {
+      /* Last record has no line terminator */
+      Files.write(input, "{\"a\": 1, \"b\": \"x\"}\n\n{\"a\": 2, \"b\": \"y\"}\n{\"a\": 3, \"b\": \"z\"}".getBytes());
+
+      SourceToSink sourceToSink =
+          new SourceToSink()
+              .readFromSource(input.toString())
+              .writeToSink(output.toString())
+              .start()
+              .drain();
+      Assert.assertTrue(sourceToSink.awaitTermination(60, TimeUnit.SECONDS));
+
+      List<String> csv = Files.readAllLines(output);
+      Assert.assertTrue(csv.equals(Arrays.asList("a,b", "1,x", "2,y", "3,z")));
+    } finally {
+      Files.delete(input);
+      Files.delete(output);
+    }
+  }
+
+  @Test
+  public void drainKeepsRecordsStreamedConcurrently_Test() throws Exception {
+    Path input = Files.createTempFile("crimson", ".json");
+    Path output = Files.createTempFile("crimson", ".csv");
+    try {
+      Files.write(input, "{\"a\": 1, \"b\": \"x\"}\n".getBytes());
+
+      SourceToSink sourceToSink =
+          new SourceToSink()
+              .readFromSource(input.toString())
+              .writeToSink(output.toString())
+              .setQueueCapacity(2)
+              .setConsumerCount(2)
+              .start();
+
+      /* Producers keep streaming until drain() rejects them, every accepted record must reach the sink */
+      AtomicInteger accepted = new AtomicInteger(1);
+      List<Thread> producers = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        Thread producer =
+            new Thread(
+                () -> {
+                  try {
+                    while (true) {
+                      sourceToSink.stream(new Object[] {"{\"a\": 2, \"b\": \"y\"}"});
+                      accepted.incrementAndGet();
+                    }
+                  } catch (IllegalStateException e) {
+                  }
+                });
+        producer.start();
+        producers.add(producer);
+      }
+      Thread.sleep(50);
+      sourceToSink.drain();
+      for (Thread producer : producers) {
+        producer.join();
+      }
+      Assert.assertTrue(sourceToSink.awaitTermination(60, TimeUnit.SECONDS));
+
+      /* Header line followed by all rows */
+      List<String> csv = Files.readAllLines(output);
+      Assert.assertTrue(csv.size() == accepted.get() + 1 && csv.get(0).equals("a,b"));
+    } finally {
+      Files.delete(input);
+      Files.delete(output);
+    }
+  }
+
+  @Test
+  public void boundedQueueBlocksSource_Test() throws Exception {
+    SourceToSink sourceToSink = new SourceToSink().setQueueCapacity(2);
+
+    Thread source = new Thread(() -> sourceToSink.stream(new Object[] {"{}", "{}", "{}", "{}", "{}"}));
+    source.start();
+    for (int i = 0; i < 500 && sourceToSink.getBlockedPuts() == 0; i++) {
+      Thread.sleep(10);
+    }
+    Assert.assertTrue(sourceToSink.getQueueDepth() == 2 && source.isAlive());
+
+    /* Drain queue through the internal queue so that the source can complete */
+    while (source.isAlive() || sourceToSink.getQueueDepth() > 0) {
+      sourceToSink.poll();
+    }
+    Assert.assertTrue(sourceToSink.getBlockedPuts() > 0 && sourceToSink.getPeakQueueDepth() == 2);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void queueCapacityFixedOnceStarted_Test() {
+    new SourceToSink().stop().setQueueCapacity(2);
+  }
+
+  @Test
+  public void arbitraryMemoryBudget_Test() {
+    SourceToSink sourceToSink = new SourceToSink().setMaximumMB(3);
+    Assert.assertTrue(sourceToSink.getMaximumMB() == 3);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidMemoryBudget_Test() {
+    new SourceToSink().setMaximumMB(0);
+  }
+
+  /**
+   * This test is executed only when the sample-json.json file exists in the location inside data directory.
+   */
+  @Test
+  public void drainAfterSourceIsRead_Test() throws Exception {
+    if (!new File("/tmp/data/sample-json.json").exists()) {
+      return;
+    }
+
+    Path input = Files.createTempFile("crimson", ".json");
+    Path output = Files.createTempFile("crimson", ".csv");
+    try {
+      List<String> lines = new ArrayList<>();
+      try (BufferedReader reader = Files.newBufferedReader(Paths.get("/tmp/data/sample-json.json"))) {
+        String line = reader.readLine();
+        for (int i = 0; i < 50_000; i++) {
+          lines.add(line);
+        }
+      }
+      Files.write(input, lines);
+
+      SourceToSink sourceToSink =
+          new SourceToSink()
+              .readFromSource(input.toString())
+              .writeToSink(output.toString())
+              .setMaximumRowLimit(1_000)
+              .setMemoryMapped(true)
+              .setConsumerCount(3)
+              .start()
+              .drain();
+      Assert.assertTrue(sourceToSink.awaitTermination(60, TimeUnit.SECONDS));
+
+      /* Header line followed by all rows */
+      List<String> csv = Files.readAllLines(output);
+      Assert.assertTrue(sourceToSink.isTerminated() && csv.size() == 50_001);
+      Assert.assertTrue(csv.get(0).equals("id,name,lisn,last_update_date,dob"));
+    } finally {
+      Files.delete(input);
+      Files.delete(output);
+    }
+  }
+
+  @Test
+  public void newColumnsAreReportedOutOfBand_Test() throws Exception {
+    Path input = Files.createTempFile("crimson", ".json");
+    Path output = Files.createTempFile("crimson", ".csv");
+    try {
+      Files.write(input, Arrays.asList("{\"a\": 1}", "{\"a\": 2}", "{\"a\": 3, \"b\": \"x\"}", "{\"a\": 4}"));
+
+      List<String> added = new ArrayList<>();
+      SourceToSink sourceToSink =
+          new SourceToSink()
+              .readFromSource(input.toString())
+              .writeToSink(output.toString())
+              .setSamplePolicy(1, 1_000)
+              .setMaximumRowLimit(2)
+              .setMemoryMapped(true)
+              .setSchemaObserver(added::addAll)
+              .start()
+              .drain();
+      Assert.assertTrue(sourceToSink.awaitTermination(60, TimeUnit.SECONDS));
+
+      /* Sink keeps the columns of its header, the new column is reported to the observer */
+      List<String> csv = Files.readAllLines(output);
+      Assert.assertTrue(csv.equals(Arrays.asList("a", "1", "2", "3", "4")) && added.equals(Arrays.asList("b")));
+    } finally {
+      Files.delete(input);
+      Files.delete(output);
+    }
+  }
+
+  @Test
+  public void newColumnsFailWithDefaults_Test() throws Exception {
+    Path input = Files.createTempFile("crimson", ".json");
+    Path output = Files.createTempFile("crimson", ".csv");
+    try {
+      Files.write(input, Arrays.asList("{\"a\": 1}", "{\"a\": 2}", "{\"a\": 3, \"b\": \"x\"}", "{\"a\": 4}"));
+
+      SourceToSink sourceToSink =
+          new SourceToSink()
+              .readFromSource(input.toString())
+              .writeToSink(output.toString())
+              .setSamplePolicy(1, 1_000)
+              .setMaximumRowLimit(2)
+              .start()
+              .drain();
+      try {
+        sourceToSink.awaitTermination(60, TimeUnit.SECONDS);
+        Assert.fail();
+      } catch (IllegalStateException e) {
+        /* Values of the late column aren't dropped silently */
+        Assert.assertTrue(e.getMessage().contains("Columns {b}"));
+      }
+    } finally {
+      Files.delete(input);
+      Files.delete(output);
+    }
+  }
+
+  @Test
+  public void newColumnsRepeatHeader_Test() throws Exception {
+    Path input = Files.createTempFile("crimson", ".json");
+    Path output = Files.createTempFile("crimson", ".csv");
+    try {
+      Files.write(input, Arrays.asList("{\"a\": 1}", "{\"a\": 2}", "{\"a\": 3, \"b\": \"x\"}", "{\"a\": 4}"));
+
+      SourceToSink sourceToSink =
+          new SourceToSink()
+              .readFromSource(input.toString())
+              .writeToSink(output.toString())
+              .setSamplePolicy(1, 1_000)
+              .setMaximumRowLimit(2)
+              .setMemoryMapped(true)
+              .setRepeatHeaderOnSchemaChange(true)
+              .start()
+              .drain();
+      Assert.assertTrue(sourceToSink.awaitTermination(60, TimeUnit.SECONDS));
+
+      /* Header line is written again with the new column before the rows holding it */
+      List<String> csv = Files.readAllLines(output);
+      Assert.assertTrue(csv.equals(Arrays.asList("a", "1", "2", "a,b", "3,x", "4,")));
+    } finally {
+      Files.delete(input);
+      Files.delete(output);
+    }
+  }
+
+  @Test
+  public void stopInterruptsConsumers_Test() throws Exception {
+    Path input = Files.createTempFile("crimson", ".json");
+    Path output = Files.createTempFile("crimson", ".csv");
+    try {
+      Files.write(input, Arrays.asList("{\"a\": 1}", "{\"a\": 2}"));
+
+      SourceToSink sourceToSink =
+          new SourceToSink()
+              .readFromSource(input.toString())
+              .writeToSink(output.toString())
+              .setMemoryMapped(true)
+              .setConsumerCount(2)
+              .start()
+              .stop();
+
+      /* Interrupted consumers exit without failing the pipeline */
+      Assert.assertTrue(sourceToSink.awaitTermination(10, TimeUnit.SECONDS) && sourceToSink.isTerminated());
+    } finally {
+      Files.delete(input);
+      Files.delete(output);
+    }
   }
 }
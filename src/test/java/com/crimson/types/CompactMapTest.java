@@ -0,0 +1,93 @@
+package com.crimson.types;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactMapTest {
+
+  @Before
+  public void setUp() throws Exception {
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  @Test
+  public void insertionOrder_Test() {
+    Map<String, Integer> map = new CompactMap<>();
+    map.put("c", 1);
+    map.put("a", 2);
+    map.put("b", 3);
+    Assert.assertTrue(map.put("a", 4) == 2 && map.size() == 3);
+    Assert.assertTrue(map.keySet().toString().equals("[c, a, b]") && map.get("a") == 4);
+    Assert.assertTrue(map.remove("c") == 1 && map.keySet().toString().equals("[a, b]"));
+    Assert.assertTrue(null == map.get("c") && null == map.remove("c") && !map.containsKey("c"));
+  }
+
+  @Test
+  public void switchToHashIndex_Test() {
+    Map<String, Integer> map = new CompactMap<>();
+    Map<String, Integer> expected = new LinkedHashMap<>();
+    for (int i = 0; i < 1_000; i++) {
+      map.put("key" + i, i);
+      expected.put("key" + i, i);
+    }
+    Assert.assertTrue(map.equals(expected) && expected.equals(map) && map.hashCode() == expected.hashCode());
+    Assert.assertTrue(map.get("key999") == 999 && !map.containsKey("key1000"));
+
+    /* Remove back below the threshold */
+    for (int i = 0; i < 1_000 - CompactMap.INDEX_THRESHOLD + 1; i++) {
+      Assert.assertTrue(map.remove("key" + i) == i);
+    }
+    Assert.assertTrue(map.size() == CompactMap.INDEX_THRESHOLD - 1 && map.get("key999") == 999);
+    Assert.assertTrue(map.keySet().iterator().next().equals("key993"));
+  }
+
+  @Test
+  public void iteratorRemoveAndSetValue_Test() {
+    Map<String, Integer> map = new CompactMap<>();
+    for (int i = 0; i < 20; i++) {
+      map.put("key" + i, i);
+    }
+    Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, Integer> entry = iterator.next();
+      if (entry.getValue() % 2 == 0) {
+        iterator.remove();
+      } else {
+        entry.setValue(-entry.getValue());
+      }
+    }
+    Assert.assertTrue(map.size() == 10 && map.get("key1") == -1 && map.get("key19") == -19);
+
+    Map<String, Integer> copy = new HashMap<>(map);
+    map.clear();
+    Assert.assertTrue(map.isEmpty() && copy.size() == 10);
+    map.put(null, 0);
+    Assert.assertTrue(map.containsKey(null) && map.get(null) == 0);
+
+    /* Entry of a removed key doesn't put the key back */
+    map.clear();
+    map.put("a", 1);
+    map.put("b", 2);
+    Map.Entry<String, Integer> entry = map.entrySet().iterator().next();
+    map.remove("a");
+    Assert.assertTrue(entry.setValue(5) == 1 && entry.getValue() == 5);
+    Assert.assertTrue(map.size() == 1 && !map.containsKey("a") && map.get("b") == 2);
+  }
+
+  @Test
+  public void jsonObjectKeepsKeyOrder_Test() {
+    JsonObject jsonObject = JsonObject.newInstance().cast("{\"z\": 1, \"y\": [2], \"x\": {\"w\": null}}");
+    Assert.assertTrue(jsonObject.map instanceof CompactMap);
+    Assert.assertTrue(jsonObject.keySet().toString().equals("[z, y, x]"));
+    Assert.assertTrue(jsonObject.toString().equals("{\"z\":1,\"y\":[2],\"x\":{\"w\":null}}"));
+  }
+}
@@ -8,6 +8,8 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParsingException;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -87,4 +89,122 @@ public class JParserTest {
     CompletableFuture completableFuture = CompletableFuture.allOf(completableFutures);
     completableFuture.get(1_000, TimeUnit.MILLISECONDS);
   }
+
+  @Test
+  public void verifyEventStream_Test() {
+    JParser parser = JParser.newInstance("{\"key1\": [1, -2.5E3, true], \"key2\": {\"key3\": null}, \"key4\": false}");
+    Event[] expected =
+        new Event[]{
+            Event.START_OBJECT, Event.KEY_NAME, Event.START_ARRAY, Event.VALUE_NUMBER,
+            Event.VALUE_NUMBER, Event.VALUE_TRUE, Event.END_ARRAY, Event.KEY_NAME,
+            Event.START_OBJECT, Event.KEY_NAME, Event.VALUE_NULL, Event.END_OBJECT,
+            Event.KEY_NAME, Event.VALUE_FALSE, Event.END_OBJECT
+        };
+
+    for (Event event : expected) {
+      Assert.assertTrue(parser.hasNext() && parser.next() == event);
+    }
+    Assert.assertTrue(!parser.hasNext());
+  }
+
+  @Test
+  public void verifyNumberAndStringValues_Test() {
+    JParser parser = JParser.newInstance("[\"a\\\"b\\u0041{\", 277162424654518927, 3.1E+4]");
+    parser.next();
+
+    Assert.assertTrue(parser.next() == Event.VALUE_STRING && parser.getString().equals("a\"bA{"));
+    Assert.assertTrue(parser.next() == Event.VALUE_NUMBER && parser.isIntegralNumber());
+    Assert.assertTrue(parser.getLong() == 277162424654518927L);
+    Assert.assertTrue(parser.next() == Event.VALUE_NUMBER && !parser.isIntegralNumber());
+    Assert.assertTrue(parser.getInt() == 31000 && parser.getString().equals("3.1E+4"));
+  }
+
+  @Test(expected = JsonParsingException.class)
+  public void trailingContentAfterValue_Test() {
+    JParser parser = JParser.newInstance("{\"key\": 1} [");
+    while (parser.hasNext()) {
+      parser.next();
+    }
+  }
+
+  @Test(expected = JsonParsingException.class)
+  public void mismatchedEndOfScope_Test() {
+    JParser parser = JParser.newInstance("[1, 2}");
+    while (parser.hasNext()) {
+      parser.next();
+    }
+  }
+
+  @Test
+  public void validateBracesInsideStringLiterals_Test() {
+    JParser parser = JParser.newInstance("{\"key\": \"}]\\\"[{\", \"key2\": [{}]}", true);
+    Assert.assertTrue(parser.validate());
+    Assert.assertTrue(parser.next() == Event.START_OBJECT);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void validateUnbalancedInput_Test() {
+    JParser.newInstance("{\"key\": [1, 2}]", true);
+  }
+
+  @Test
+  public void skipValidationForTrustedInput_Test() {
+    JParser parser = JParser.newInstance("{\"key\": [1, 2}]", false);
+    Assert.assertTrue(!parser.validate());
+    Assert.assertTrue(parser.next() == Event.START_OBJECT);
+  }
+
+  @Test
+  public void validateWhileParsing_Test() {
+    JParser parser = JParser.newInstance("[1, {\"a\": 1}]");
+    Assert.assertTrue(parser.next() == Event.START_ARRAY);
+    Assert.assertTrue(!parser.validate());
+    Assert.assertTrue(parser.next() == Event.VALUE_NUMBER
+        && parser.next() == Event.START_OBJECT
+        && parser.next() == Event.KEY_NAME
+        && parser.next() == Event.VALUE_NUMBER
+        && parser.next() == Event.END_OBJECT
+        && parser.next() == Event.END_ARRAY);
+  }
+
+  @Test
+  public void resetParserAcrossDocuments_Test() {
+    JParser parser = JParser.newInstance();
+    Assert.assertTrue(!parser.hasNext());
+
+    parser.reset("{\"key1\": [1, 2]}");
+    Assert.assertTrue(parser.next() == Event.START_OBJECT && parser.next() == Event.KEY_NAME);
+    parser.close();
+
+    byte[] bytes = "[\"\u00e9\", 2.5]".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+    parser.reset(bytes, 0, bytes.length);
+    Assert.assertTrue(parser.next() == Event.START_ARRAY && parser.next() == Event.VALUE_STRING);
+    Assert.assertTrue(parser.getString().equals("\u00e9") && parser.next() == Event.VALUE_NUMBER);
+    Assert.assertTrue(parser.getBigDecimal().doubleValue() == 2.5 && parser.next() == Event.END_ARRAY);
+    Assert.assertTrue(!parser.hasNext() && parser.getLocation().getLineNumber() == 1);
+  }
+
+  @Test
+  public void threadParserIsReused_Test() {
+    JParser parser = JParser.forThread();
+    Assert.assertTrue(JParser.forThread() == parser);
+    Assert.assertTrue(JParser.forThread(input_1) == parser);
+
+    /* A parser still parsing a document is not handed out again */
+    Assert.assertTrue(JParser.forThread(input_1) != parser);
+    parser.close();
+
+    /* Failed casts give the parser back */
+    try {
+      JsonObject.newInstance().cast("{\"key1\": [1, 2}");
+      Assert.fail();
+    } catch (JsonType.UnCastableObjectToInstanceTypeException e) {
+    }
+    Assert.assertTrue(JParser.forThread(input_1) == parser);
+    parser.close();
+
+    JsonObject jsonObject = JsonObject.newInstance().cast(input_1);
+    Assert.assertTrue(jsonObject.size() == 5 && JParser.forThread("{}") == parser);
+    parser.close();
+  }
 }
@@ -1,7 +1,9 @@
 package com.crimson.types;
 
+import java.util.List;
 import javax.json.JsonArray;
 import javax.json.JsonNumber;
+import javax.json.JsonValue;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
@@ -151,4 +153,26 @@ public class JsonArrayTest {
     Assert.assertTrue(jsonArray.size() == 8);
     Assert.assertTrue(jsonArray.isNull(4) == true);
   }
+
+  @Test
+  public void nestedValuesReturnSameInstance_Test() {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(INPUT_1);
+
+    JsonArray jsonArray1 = jsonObject.getJsonArray("key");
+    JsonArray jsonArray2 = jsonArray1.getJsonArray(7);
+    Assert.assertTrue(jsonArray2 == jsonArray1.get(7));
+    Assert.assertTrue(jsonArray2.getJsonObject(2) == jsonArray2.get(2));
+  }
+
+  @Test
+  public void getValuesAsDoesNotModifyValues_Test() {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(INPUT_1);
+
+    JsonArray jsonArray = jsonObject.getJsonArray("key");
+    List<JsonValue> values = jsonArray.getValuesAs(JsonValue.class);
+    Assert.assertTrue(values.size() == 8 && values.get(5) == jsonArray.get(5));
+    Assert.assertTrue(jsonArray.getString(5).equals("\"null\""));
+  }
 }
@@ -49,4 +49,24 @@ public class JsonBooleanTest {
     jsonBoolean.cast("FALSE");
     Assert.assertTrue(jsonBoolean.getValueType() == ValueType.FALSE);
   }
+
+  @Test
+  public void sharedInstances_Test() {
+    JsonBoolean jsonTrue = JsonBoolean.getInstance(true);
+    Assert.assertTrue(jsonTrue == JsonBoolean.getInstance(true) && jsonTrue.isImmutable() && jsonTrue.getBoolean()
+        && jsonTrue.valueOf() == jsonTrue && jsonTrue.cast(JsonValue.TRUE) == jsonTrue
+        && !JsonBoolean.getInstance(false).getBoolean() && !JsonBoolean.newInstance().isImmutable());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void castSharedInstanceToOtherValueExpectedException_Test() {
+    JsonBoolean.getInstance(false).cast(JsonValue.TRUE);
+  }
+
+  @Test
+  public void castJsonBooleanAsInput_Test() {
+    JsonBoolean jsonBoolean = JsonBoolean.newInstance();
+    jsonBoolean.cast(JsonBoolean.getInstance(true));
+    Assert.assertTrue(jsonBoolean.booleanValue == Boolean.TRUE && !jsonBoolean.isImmutable());
+  }
 }
@@ -0,0 +1,122 @@
+package com.crimson.types;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.json.JsonException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JsonLinesReaderTest {
+
+  /* Input data */
+  String INPUT_0 =
+      "{\"key\": 1}\n"
+          + "\n"
+          + "{\"key\": 2, \"nested\": {\"kéy\": [1, 2, 3]}}\r\n"
+          + "   \n"
+          + "{\"key\": 3}";
+
+  @Before
+  public void setUp() throws Exception {}
+
+  @After
+  public void tearDown() throws Exception {}
+
+  private static InputStream stream(String input) {
+    return new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void iterateRecordsSkippingBlankLines_Test() throws IOException {
+    try (JsonLinesReader reader = JsonLinesReader.newInstance(stream(INPUT_0))) {
+      Assert.assertTrue(reader.hasNext() && reader.next().getInt("key") == 1);
+      JsonObject second = reader.next();
+      Assert.assertTrue(second.getInt("key") == 2);
+      Assert.assertTrue(second.getJsonObject("nested").getJsonArray("kéy").size() == 3);
+      Assert.assertTrue(reader.next().getInt("key") == 3 && reader.getLineNumber() == 5);
+      Assert.assertTrue(!reader.hasNext());
+    }
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void nextAfterEndOfInput_Test() throws IOException {
+    try (JsonLinesReader reader = JsonLinesReader.newInstance(stream(""))) {
+      reader.next();
+    }
+  }
+
+  @Test
+  public void streamRecordsFromFile_Test() throws IOException {
+    Path path = Files.createTempFile("crimson", ".json");
+    try {
+      StringBuilder builder = new StringBuilder();
+      for (int i = 0; i < 10_000; i++) {
+        builder.append("{\"id\": ").append(i).append(", \"name\": \"record ").append(i).append("\"}\n");
+      }
+      Files.write(path, builder.toString().getBytes(StandardCharsets.UTF_8));
+
+      try (Stream<JsonObject> records = JsonLinesReader.newInstance(path).stream()) {
+        List<Integer> ids = records.map(e -> e.getInt("id")).collect(Collectors.toList());
+        Assert.assertTrue(ids.size() == 10_000 && ids.get(9_999) == 9_999);
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void linesLongerThanReadBuffer_Test() throws IOException {
+    StringBuilder builder = new StringBuilder("{\"key\": \"");
+    for (int i = 0; i < 200_000; i++) {
+      builder.append('a');
+    }
+    builder.append("\"}\n{\"key\": \"b\"}\n");
+
+    try (JsonLinesReader reader =
+        JsonLinesReader.newInstance(Channels.newChannel(stream(builder.toString())))) {
+      Assert.assertTrue(((JsonString) reader.next().get("key")).getString().length() == 200_000);
+      Assert.assertTrue(((JsonString) reader.next().get("key")).getString().equals("b"));
+    }
+  }
+
+  @Test(expected = JsonException.class)
+  public void lineExceedsMaximumLength_Test() throws IOException {
+    try (JsonLinesReader reader =
+        JsonLinesReader.newInstance(Channels.newChannel(stream(INPUT_0)), 8)) {
+      reader.next();
+    }
+  }
+
+  @Test
+  public void lineOfMaximumLength_Test() throws IOException {
+    try (JsonLinesReader reader =
+        JsonLinesReader.newInstance(Channels.newChannel(stream("{\"key\": 1}\n{\"key\": 22}\n")), 10)) {
+      Assert.assertTrue(reader.next().getInt("key") == 1);
+      try {
+        reader.next();
+        Assert.fail();
+      } catch (JsonException e) {
+        Assert.assertTrue(e.getMessage().contains("Line 2"));
+      }
+    }
+  }
+
+  @Test(expected = JsonException.class)
+  public void invalidRecord_Test() throws IOException {
+    try (JsonLinesReader reader = JsonLinesReader.newInstance(stream("{\"key\": 1}\n{\"key\": }\n"))) {
+      reader.next();
+      reader.next();
+    }
+  }
+}
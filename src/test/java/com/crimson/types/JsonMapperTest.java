@@ -1,5 +1,6 @@
 package com.crimson.types;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import org.junit.After;
@@ -84,4 +85,12 @@ public class JsonMapperTest {
     String res = mapper.toString(jsonArray);
     Assert.assertTrue(null != res && res.contains("30000.0"));
   }
+
+  @Test
+  public void largeLongToMap_Test() {
+    JsonMapper mapper = new JsonMapper();
+    Map<Object, Object> map = mapper.toMap("{\"id\": 9007199254740993, \"price\": 0.1}");
+    Assert.assertTrue(map.get("id").equals(new BigDecimal("9007199254740993"))
+        && map.get("price").equals(new BigDecimal("0.1")));
+  }
 }
@@ -33,4 +33,16 @@ public class JsonNullTest {
     JsonNull jsonNull = JsonNull.newInstance();
     jsonNull.cast(null);
   }
+
+  @Test
+  public void sharedInstance_Test() {
+    JsonNull jsonNull = JsonNull.getInstance();
+    Assert.assertTrue(jsonNull == JsonNull.getInstance() && jsonNull.isImmutable() && jsonNull.valueOf() == jsonNull
+        && jsonNull.cast(JsonValue.NULL) == jsonNull && !JsonNull.newInstance().isImmutable());
+  }
+
+  @Test(expected = UnCastableObjectToInstanceTypeException.class)
+  public void castSharedInstanceToNonNullExpectedException_Test() {
+    JsonNull.getInstance().cast("test");
+  }
 }
@@ -47,7 +47,7 @@ public class JsonNumberTest {
 
     JsonNumber jsonNumber6 = jsonArray.getJsonNumber(5);
     Assert.assertTrue(
-        jsonNumber6.bigIntegerValue().equals(BigInteger.valueOf(277_162_424_654_518_912L)));
+        jsonNumber6.bigIntegerValue().equals(BigInteger.valueOf(277_162_424_654_518_927L)));
 
     JsonNumber jsonNumber7 = jsonArray.getJsonNumber(6);
     Assert.assertTrue(jsonNumber7.bigIntegerValueExact().equals(BigInteger.valueOf(2_341)));
@@ -56,7 +56,7 @@ public class JsonNumberTest {
     Assert.assertTrue(jsonNumber8.doubleValue() == 18726262.626352726);
 
     JsonNumber jsonNumber9 = jsonArray.getJsonNumber(7);
-    Assert.assertTrue(jsonNumber9.bigDecimalValue().equals(BigDecimal.valueOf(18726262.626352726)));
+    Assert.assertTrue(jsonNumber9.bigDecimalValue().equals(new BigDecimal("18726262.626352726")));
   }
 
   @Test
@@ -71,4 +71,54 @@ public class JsonNumberTest {
     JsonNumber jsonNumber = jsonArray.getJsonNumber(7);
     Assert.assertTrue(jsonNumber.getValueType() == ValueType.NUMBER);
   }
+
+  @Test
+  public void primitiveRepresentation_Test() {
+    JsonArray jsonArray =
+        com.crimson.types.JsonArray.newInstance().cast("[9223372036854775, -0.0096, 2.5E-30, 123456789012345678901, 1E+400]");
+
+    JsonNumber number1 = (JsonNumber) jsonArray.get(0);
+    Assert.assertTrue(number1.isIntegral() && number1.toString().equals("9223372036854775"));
+
+    JsonNumber number2 = (JsonNumber) jsonArray.get(1);
+    Assert.assertTrue(number2.doubleValue() == -0.0096 && number2.toString().equals("-0.0096"));
+
+    JsonNumber number3 = (JsonNumber) jsonArray.get(2);
+    Assert.assertTrue(number3.doubleValue() == 2.5E-30);
+
+    JsonNumber number4 = (JsonNumber) jsonArray.get(3);
+    Assert.assertTrue(number4.bigIntegerValue().equals(new BigInteger("123456789012345678901")));
+    Assert.assertTrue(number4.toString().equals("123456789012345678901"));
+
+    JsonNumber number5 = (JsonNumber) jsonArray.get(4);
+    Assert.assertTrue(number5.bigDecimalValue().equals(new BigDecimal("1E+400")));
+  }
+
+  @Test
+  public void doubleConversions_Test() {
+    /* Integral by scale, as in javax.json */
+    JsonNumber whole = com.crimson.types.JsonNumber.newInstance().cast(2.0);
+    JsonNumber fraction = com.crimson.types.JsonNumber.newInstance().cast(2.5);
+    Assert.assertTrue(!whole.isIntegral() && !fraction.isIntegral());
+
+    /* Out of range doubles convert like their BigDecimal value */
+    JsonNumber large = com.crimson.types.JsonNumber.newInstance().cast(4_294_967_297.0);
+    JsonNumber huge = com.crimson.types.JsonNumber.newInstance().cast(1e19);
+    Assert.assertTrue(large.intValue() == 1 && large.intValue() == new BigDecimal(4_294_967_297.0).intValue());
+    Assert.assertTrue(huge.longValue() == new BigDecimal(1e19).longValue()
+        && huge.intValue() == new BigDecimal(1e19).intValue());
+  }
+
+  @Test
+  public void parsedNumbersKeepScale_Test() {
+    JsonArray jsonArray =
+        com.crimson.types.JsonArray.newInstance().cast("[2, 1.0, 1e2, 0.00001, 1e10, -1.50, 2.15E+05]");
+    Assert.assertTrue(jsonArray.getJsonNumber(0).isIntegral() && !jsonArray.getJsonNumber(1).isIntegral()
+        && !jsonArray.getJsonNumber(2).isIntegral());
+    Assert.assertTrue(jsonArray.getJsonNumber(3).bigDecimalValue().toString().equals("0.00001")
+        && jsonArray.getJsonNumber(4).bigDecimalValue().equals(new BigDecimal("1e10"))
+        && jsonArray.getJsonNumber(5).bigDecimalValue().toString().equals("-1.50")
+        && jsonArray.getJsonNumber(6).bigDecimalValue().equals(new BigDecimal("2.15E+05")));
+    Assert.assertTrue(jsonArray.getJsonNumber(5).doubleValue() == -1.5);
+  }
 }
@@ -2,10 +2,17 @@ package com.crimson.types;
 
 import com.crimson.types.JsonType.UnCastableObjectToInstanceTypeException;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Set;
 import javax.json.JsonValue;
@@ -66,6 +73,9 @@ public class JsonObjectTest {
 
   String INPUT_19 = "{\"key\": \"null\"}";
 
+  String INPUT_20 =
+      "{\"k\u00e9y\": \"\u00fcber \u20ac \ud83d\ude00\", \"key2\": [12345.678, true, null], \"key3\": {\"key4\": \"value4\"}}";
+
   @BeforeClass
   public static void after() {}
 
@@ -204,7 +214,8 @@ public class JsonObjectTest {
     jsonObject.cast(INPUT_16);
     JsonNumber jsonNumber = JsonNumber.newInstance().cast(jsonObject.get("key"));
     Assert.assertTrue(
-        jsonNumber.bigDecimalValue().toEngineeringString().equalsIgnoreCase("215000.0"));
+        jsonNumber.bigDecimalValue().toEngineeringString().equalsIgnoreCase("215E+3")
+            && jsonNumber.bigDecimalValue().compareTo(BigDecimal.valueOf(215_000)) == 0);
   }
 
   @Test(expected = IllegalArgumentException.class)
@@ -743,4 +754,230 @@ public class JsonObjectTest {
     jsonObject.remove("key4");
     Assert.assertTrue(null != jsonObject && jsonObject.size() == 3);
   }
+
+  @Test
+  public void utf8BytesAsInput_Test() {
+    byte[] bytes = INPUT_20.getBytes(StandardCharsets.UTF_8);
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(bytes);
+    Assert.assertTrue(jsonObject.size() == 3);
+    Assert.assertTrue(((JsonString) jsonObject.get("k\u00e9y")).getString().equals("\u00fcber \u20ac \ud83d\ude00"));
+  }
+
+  @Test
+  public void heapAndDirectByteBufferAsInput_Test() {
+    byte[] bytes = INPUT_20.getBytes(StandardCharsets.UTF_8);
+    ByteBuffer heap = ByteBuffer.wrap(bytes);
+    ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+    direct.put(bytes).flip();
+
+    JsonObject jsonObject1 = JsonObject.newInstance();
+    jsonObject1.cast(heap);
+    JsonObject jsonObject2 = JsonObject.newInstance();
+    jsonObject2.cast(direct);
+
+    Assert.assertTrue(jsonObject1.size() == 3 && jsonObject2.size() == 3);
+    Assert.assertTrue(jsonObject1.toString().equals(jsonObject2.toString()));
+    Assert.assertTrue(heap.position() == 0 && direct.position() == 0);
+  }
+
+  @Test
+  public void inputStreamAsInput_Test() {
+    byte[] bytes = INPUT_20.getBytes(StandardCharsets.UTF_8);
+
+    /* Hand out a single byte per read to split tokens and multi byte chars across refills */
+    ByteArrayInputStream inputStream =
+        new ByteArrayInputStream(bytes) {
+          @Override
+          public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, 1));
+          }
+        };
+
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(inputStream);
+    Assert.assertTrue(jsonObject.size() == 3);
+    Assert.assertTrue(((JsonString) jsonObject.get("k\u00e9y")).getString().equals("\u00fcber \u20ac \ud83d\ude00"));
+    Assert.assertTrue(jsonObject.getJsonArray("key2").size() == 3);
+  }
+
+  @Test(expected = UnCastableObjectToInstanceTypeException.class)
+  public void malformedUtf8BytesAsInput_Test() {
+    byte[] bytes = new byte[]{'{', '"', (byte) 0xC3, '"', ':', '1', '}'};
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(bytes);
+  }
+
+  @Test
+  public void lazyJsonObjectMaterializesOnRead_Test() {
+    JsonObject jsonObject = JsonObject.newLazyInstance();
+    jsonObject.cast(INPUT_5);
+    Assert.assertTrue(jsonObject.size() == 5 && jsonObject.containsKey("key7"));
+    Assert.assertTrue(!(jsonObject.map.get("key4") instanceof JsonType));
+
+    JsonType<?> valueType = (JsonType<?>) jsonObject.get("key4");
+    Assert.assertTrue(valueType instanceof JsonObject && ((JsonObject) valueType).size() == 2);
+    Assert.assertTrue(jsonObject.map.get("key4") instanceof JsonObject);
+    Assert.assertTrue(!(jsonObject.map.get("key7") instanceof JsonType));
+
+    Assert.assertTrue(jsonObject.getString("key1").equals("\"value1\""));
+    Assert.assertTrue(jsonObject.getJsonArray("key3").size() == 3);
+  }
+
+  @Test
+  public void lazyJsonObjectToString_Test() {
+    JsonObject eager = JsonObject.newInstance();
+    eager.cast(INPUT_5);
+    JsonObject lazy = JsonObject.newLazyInstance();
+    lazy.cast(INPUT_5.getBytes(StandardCharsets.UTF_8));
+    Assert.assertTrue(lazy.toString().equals(eager.toString()));
+    Assert.assertTrue(lazy.entrySet().size() == 5);
+  }
+
+  @Test(expected = UnCastableObjectToInstanceTypeException.class)
+  public void lazyJsonObjectInvalidInput_Test() {
+    JsonObject jsonObject = JsonObject.newLazyInstance();
+    jsonObject.cast(INPUT_14);
+  }
+
+  @Test
+  public void getJsonObjectAndJsonArrayReturnSameInstance_Test() {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(INPUT_5);
+    Assert.assertTrue(jsonObject.getJsonObject("key4") == jsonObject.get("key4"));
+    Assert.assertTrue(jsonObject.getJsonArray("key7") == jsonObject.get("key7"));
+    Assert.assertTrue(jsonObject.getJsonArray("key4x") == null);
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void getJsonObjectForArrayValue_Test() {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(INPUT_5);
+    jsonObject.getJsonObject("key7");
+  }
+
+  @Test
+  public void writeUtf8RoundTrip_Test() throws IOException {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(INPUT_20);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonWriter jsonWriter = new JsonWriter();
+    jsonWriter.write((JsonType) jsonObject, out);
+
+    JsonObject copy = JsonObject.newInstance();
+    copy.cast(out.toByteArray());
+    Assert.assertTrue(copy.toString().equals(jsonObject.toString()));
+  }
+
+  @Test
+  public void writeEscapedStrings_Test() throws IOException {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast("{\"k\\\"ey\": \"line\\nbreak \\\"quoted\\\" \\\\ \\u0001\"}");
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonWriter jsonWriter = new JsonWriter();
+    jsonWriter.write((JsonType) jsonObject, out);
+
+    String json = new String(out.toByteArray(), StandardCharsets.UTF_8);
+    Assert.assertTrue(
+        json.equals("{\"k\\\"ey\":\"line\\nbreak \\\"quoted\\\" \\\\ \\u0001\"}"));
+  }
+
+  @Test
+  public void writeToWriterAndCharset_Test() throws IOException {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(INPUT_20);
+
+    JsonWriter jsonWriter = new JsonWriter();
+    StringWriter writer = new StringWriter();
+    jsonWriter.write((JsonType) jsonObject, writer);
+
+    ByteArrayOutputStream utf8 = new ByteArrayOutputStream();
+    jsonWriter.write((JsonType) jsonObject, utf8);
+    ByteArrayOutputStream utf16 = new ByteArrayOutputStream();
+    jsonWriter.write((JsonType) jsonObject, utf16, StandardCharsets.UTF_16);
+
+    Assert.assertTrue(
+        writer.toString().equals(new String(utf8.toByteArray(), StandardCharsets.UTF_8))
+            && writer.toString().equals(new String(utf16.toByteArray(), StandardCharsets.UTF_16)));
+  }
+
+  @Test
+  public void writeUnpairedSurrogate_Test() throws IOException {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast("{\"lone\": \"a\\uD800b\", \"low\": \"\\uDC00\", \"pair\": \"\\uD83D\\uDE00\"}");
+
+    JsonWriter jsonWriter = new JsonWriter();
+    StringWriter writer = new StringWriter();
+    jsonWriter.write((JsonType) jsonObject, writer);
+    ByteArrayOutputStream utf8 = new ByteArrayOutputStream();
+    jsonWriter.write((JsonType) jsonObject, utf8);
+
+    String json = writer.toString();
+    Assert.assertTrue(
+        json.contains("\"a\\ud800b\"")
+            && json.contains("\"\\udc00\"")
+            && json.contains("\"\uD83D\uDE00\"")
+            && json.equals(new String(utf8.toByteArray(), StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void writeLargeArrayOfObjects_Test() throws IOException {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast(INPUT_20);
+    JsonType[] jsonObjects = new JsonType[1_000];
+    Arrays.fill(jsonObjects, jsonObject);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonWriter jsonWriter = new JsonWriter();
+    jsonWriter.write(jsonObjects, out);
+
+    String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    JsonObject last = JsonObject.newInstance();
+    last.cast(lines[lines.length - 1]);
+    Assert.assertTrue(lines.length == 1_000 && last.toString().equals(jsonObject.toString()));
+  }
+
+  @Test
+  public void writeAfterFailedWrite_Test() throws IOException {
+    JsonObject jsonObject = JsonObject.newInstance();
+    jsonObject.cast("{\"k\": \"v\"}");
+    JsonWriter jsonWriter = new JsonWriter();
+
+    OutputStream failing = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Stream closed");
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException {
+        throw new IOException("Stream closed");
+      }
+    };
+    try {
+      jsonWriter.write((JsonType) jsonObject, failing);
+      Assert.fail();
+    } catch (IOException e) {
+      /* Expected */
+    }
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    jsonWriter.write((JsonType) jsonObject, out);
+    Assert.assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).equals("{\"k\":\"v\"}"));
+  }
+
+  @Test
+  public void parsedLiteralsAreShared_Test() {
+    JsonObject jsonObject =
+        JsonObject.newInstance().cast("{\"a\": true, \"b\": false, \"c\": null, \"d\": [true, null]}");
+    JsonArray jsonArray = (JsonArray) jsonObject.get("d");
+    Assert.assertTrue(jsonObject.get("a") == JsonBoolean.getInstance(true)
+        && jsonObject.get("b") == JsonBoolean.getInstance(false)
+        && jsonObject.get("c") == JsonNull.getInstance()
+        && jsonArray.get(0) == JsonBoolean.getInstance(true)
+        && jsonArray.get(1) == JsonNull.getInstance()
+        && jsonObject.getBoolean("a") && !jsonObject.getBoolean("b") && jsonArray.getBoolean(0));
+  }
 }
@@ -0,0 +1,63 @@
+package com.crimson.types;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class KeyTableTest {
+
+  @Before
+  public void setUp() throws Exception {
+  }
+
+  @After
+  public void tearDown() throws Exception {
+  }
+
+  @Test
+  public void internKeysFromChars_Test() {
+    KeyTable keyTable = KeyTable.newInstance();
+    char[] chars = "{\"name\": 1, \"name\": 2, \"other\": 3}".toCharArray();
+    String first = keyTable.intern(chars, 2, 4);
+    String second = keyTable.intern(chars, 13, 4);
+    Assert.assertTrue(first.equals("name") && first == second);
+    Assert.assertTrue(keyTable.intern("name") == first && keyTable.intern(chars, 24, 5).equals("other"));
+    Assert.assertTrue(keyTable.size() == 2);
+  }
+
+  @Test
+  public void tableIsBounded_Test() {
+    KeyTable keyTable = KeyTable.newInstance(2);
+    String a = keyTable.intern("a");
+    String b = keyTable.intern("b");
+    String c = keyTable.intern(new String("c"));
+    Assert.assertTrue(keyTable.size() == 2 && keyTable.intern("a") == a && keyTable.intern("b") == b);
+    Assert.assertTrue(keyTable.intern(new String("c")) != c && keyTable.intern("c").equals("c"));
+
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i <= KeyTable.MAX_KEY_LENGTH; i++) {
+      builder.append('k');
+    }
+    keyTable.clear();
+    String key = builder.toString();
+    Assert.assertTrue(keyTable.intern(key) == key && keyTable.size() == 0);
+  }
+
+  @Test
+  public void parserSharesKeysAcrossDocuments_Test() {
+    JParser parser = JParser.newInstance().setKeyTable(KeyTable.newInstance());
+    JsonObject first = JsonObject.newInstance().cast(parser.reset("{\"key\": 1, \"k\\u00e9y\": 2}"), parser);
+    JsonObject second = JsonObject.newInstance().cast(parser.reset("{\"key\": 3, \"k\\u00e9y\": 4}"), parser);
+
+    Object[] firstKeys = first.keySet().toArray();
+    Object[] secondKeys = second.keySet().toArray();
+    Assert.assertTrue(firstKeys[0] == secondKeys[0] && firstKeys[1] == secondKeys[1]);
+    Assert.assertTrue(secondKeys[1].equals("kéy") && parser.getKeyTable().size() == 2);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void invalidCapacity_Test() {
+    KeyTable.newInstance(0);
+  }
+}